@@ -0,0 +1,122 @@
+package study.querydsl.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * /v1/members 에 고정 도착률(open model)로 요청을 보낸다.
+ * 응답 시간은 실제 전송 시각이 아니라 예정 전송 시각부터 재서, 서버가 밀려 전송이 늦어진 시간까지 포함한다
+ * (coordinated omission 보정). 실제 전송 시각부터 잰 service time 도 같이 기록한다.
+ */
+public class LoadGenerator {
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final LoadTestOptions options;
+    private final SearchMix mix;
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final Recorder responseTime = new Recorder(MAX_LATENCY_NANOS, 3);
+    private final Recorder serviceTime = new Recorder(MAX_LATENCY_NANOS, 3);
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+
+    public LoadGenerator(LoadTestOptions options) {
+        this.options = options;
+        this.mix = new SearchMix(options);
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        System.out.println("load test: " + options);
+        new LoadGenerator(options).run();
+    }
+
+    void run() throws IOException {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.rate;
+        long start = System.nanoTime();
+        long measureFrom = start + options.warmup.toNanos();
+        long end = measureFrom + options.duration.toNanos();
+
+        // 워밍업 구간에서 멈추고 기다리면 그 뒤에 요청이 몰리므로 스케줄은 그대로 두고,
+        // 예정 전송 시각이 measureFrom 이후인 요청만 기록한다
+        List<CompletableFuture<?>> inFlight = new ArrayList<>();
+        for (long i = 0; ; i++) {
+            long intendedStart = start + i * intervalNanos;
+            if (intendedStart >= end) {
+                break;
+            }
+            long wait = intendedStart - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            inFlight.add(send(intendedStart, intendedStart >= measureFrom));
+            inFlight.removeIf(CompletableFuture::isDone);
+        }
+        CompletableFuture.allOf(inFlight.toArray(new CompletableFuture[0])).join();
+
+        writeReport(responseTime.getIntervalHistogram(), serviceTime.getIntervalHistogram());
+    }
+
+    private CompletableFuture<?> send(long intendedStart, boolean measured) {
+        String query = mix.next();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(options.baseUrl + "/v1/members?" + query))
+                .timeout(Duration.ofNanos(MAX_LATENCY_NANOS))
+                .GET()
+                .build();
+        long actualStart = System.nanoTime();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, error) -> {
+                    if (!measured) {
+                        return null;
+                    }
+                    long now = System.nanoTime();
+                    responseTime.recordValue(Math.min(now - intendedStart, MAX_LATENCY_NANOS));
+                    serviceTime.recordValue(Math.min(now - actualStart, MAX_LATENCY_NANOS));
+                    String outcome = error != null ? "error" : String.valueOf(response.statusCode());
+                    outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+                    return null;
+                });
+    }
+
+    private void writeReport(Histogram response, Histogram service) throws IOException {
+        Files.createDirectories(options.report.toAbsolutePath().getParent());
+        try (PrintStream out = new PrintStream(Files.newOutputStream(options.report))) {
+            double seconds = options.duration.toNanos() / 1e9;
+            out.println("# " + options);
+            out.printf("requests      %d%n", response.getTotalCount());
+            out.printf("throughput    %.1f req/s (target %d req/s)%n", response.getTotalCount() / seconds, options.rate);
+            out.println("status        " + new TreeMap<>(outcomes));
+            out.println();
+            out.println("percentile    response(ms)  service(ms)");
+            for (double percentile : new double[]{50, 90, 99, 99.9, 99.99, 100}) {
+                out.printf("%-12s  %12.3f  %11.3f%n", percentile,
+                        response.getValueAtPercentile(percentile) / 1e6,
+                        service.getValueAtPercentile(percentile) / 1e6);
+            }
+            out.println();
+            out.println("# response time distribution (coordinated-omission corrected, ms)");
+            response.outputPercentileDistribution(out, 1e6);
+        }
+        System.out.println("report: " + options.report.toAbsolutePath());
+        Files.readAllLines(options.report).stream().limit(14).forEach(System.out::println);
+    }
+}
@@ -0,0 +1,53 @@
+package study.querydsl.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * --name=value 형태의 실행 인자. teams / members / age 범위는 서버의 app.loadtest.* 설정과 맞춘다.
+ */
+public class LoadTestOptions {
+    final String baseUrl;
+    final int rate;
+    final Duration warmup;
+    final Duration duration;
+    final int teams;
+    final int members;
+    final int ageMin;
+    final int ageMax;
+    final long seed;
+    final Path report;
+
+    private LoadTestOptions(Map<String, String> args) {
+        baseUrl = args.getOrDefault("url", "http://localhost:8080");
+        rate = Integer.parseInt(args.getOrDefault("rate", "200"));
+        warmup = Duration.parse("PT" + args.getOrDefault("warmup", "10s"));
+        duration = Duration.parse("PT" + args.getOrDefault("duration", "60s"));
+        teams = Integer.parseInt(args.getOrDefault("teams", "100"));
+        members = Integer.parseInt(args.getOrDefault("members", "100000"));
+        ageMin = Integer.parseInt(args.getOrDefault("age-min", "0"));
+        ageMax = Integer.parseInt(args.getOrDefault("age-max", "99"));
+        seed = Long.parseLong(args.getOrDefault("seed", "7"));
+        report = Path.of(args.getOrDefault("report", "build/loadtest/report.txt"));
+    }
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("expected --name=value but was " + arg);
+            }
+            int eq = arg.indexOf('=');
+            values.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return new LoadTestOptions(values);
+    }
+
+    @Override
+    public String toString() {
+        return "url=" + baseUrl + ", rate=" + rate + "/s, warmup=" + warmup + ", duration=" + duration
+                + ", teams=" + teams + ", members=" + members + ", seed=" + seed;
+    }
+}
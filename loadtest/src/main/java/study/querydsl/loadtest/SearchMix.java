@@ -0,0 +1,47 @@
+package study.querydsl.loadtest;
+
+import java.util.Random;
+
+/**
+ * /v1/members 요청 조건 구성비.
+ * <pre>
+ * 40% 팀        30% 팀 + 나이 범위    20% 회원 이름
+ *  9% 나이 범위만   1% 조건 없음(전체 조회)
+ * </pre>
+ */
+public class SearchMix {
+    private final LoadTestOptions options;
+    private final Random random;
+
+    public SearchMix(LoadTestOptions options) {
+        this.options = options;
+        this.random = new Random(options.seed);
+    }
+
+    public String next() {
+        int p = random.nextInt(100);
+        if (p < 40) {
+            return "teamName=" + team();
+        }
+        if (p < 70) {
+            int from = age();
+            return "teamName=" + team() + "&ageGoe=" + from + "&ageLoe=" + Math.min(options.ageMax, from + 10);
+        }
+        if (p < 90) {
+            return "username=member" + random.nextInt(options.members);
+        }
+        if (p < 99) {
+            int from = age();
+            return "ageGoe=" + from + "&ageLoe=" + Math.min(options.ageMax, from + 5);
+        }
+        return "";
+    }
+
+    private String team() {
+        return "team" + random.nextInt(options.teams);
+    }
+
+    private int age() {
+        return options.ageMin + random.nextInt(options.ageMax - options.ageMin + 1);
+    }
+}
@@ -0,0 +1,51 @@
+package study.querydsl;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 벤치마크 공통: 인메모리 H2 로 애플리케이션을 띄우고 데이터를 넣는다.
+ */
+public class BenchmarkSupport {
+
+    public static ConfigurableApplicationContext start(String... properties) {
+        List<String> all = new ArrayList<>(List.of(
+                "spring.profiles.active=bench",
+                "spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1",
+                "spring.jpa.hibernate.ddl-auto=create",
+                "logging.level.org.hibernate.SQL=warn",
+                "logging.level.org.hibernate.type=warn"
+        ));
+        all.addAll(List.of(properties));
+        return new SpringApplicationBuilder(QuerydslApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(all.toArray(new String[0]))
+                .run();
+    }
+
+    public static void seed(ConfigurableApplicationContext context, int teams, int membersPerTeam) {
+        EntityManager em = context.getBean(EntityManager.class);
+        TransactionTemplate tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        for (int t = 0; t < teams; t++) {
+            int teamIndex = t;
+            tx.executeWithoutResult(status -> {
+                Team team = new Team("team" + teamIndex);
+                em.persist(team);
+                for (int i = 0; i < membersPerTeam; i++) {
+                    em.persist(new Member("member" + teamIndex + "_" + i, i % 100, team));
+                }
+                em.flush();
+                em.clear();
+            });
+        }
+    }
+}
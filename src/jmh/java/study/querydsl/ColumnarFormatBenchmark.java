@@ -0,0 +1,69 @@
+package study.querydsl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import study.querydsl.dto.MemberTeamColumnarHttpMessageConverter;
+import study.querydsl.dto.MemberTeamColumns;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * /v1/members 응답 직렬화 : Jackson(List&lt;MemberTeamDto&gt;) vs 컬럼형 포맷.
+ * 응답 크기(bytes)는 setUp 에서 한 번 계산해 출력한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class ColumnarFormatBenchmark {
+    @Param({"100", "10000"})
+    int rows;
+
+    @Param({"false", "true"})
+    boolean gzip;
+
+    ObjectMapper objectMapper = new ObjectMapper();
+    MemberTeamColumnarHttpMessageConverter converter = new MemberTeamColumnarHttpMessageConverter(objectMapper.getFactory());
+    List<MemberTeamDto> dtos;
+    MemberTeamColumns columns;
+
+    @Setup
+    public void setUp() throws IOException {
+        dtos = new ArrayList<>();
+        columns = new MemberTeamColumns();
+        for (int i = 0; i < rows; i++) {
+            long teamId = i % 10;
+            dtos.add(new MemberTeamDto((long) i, "member" + i, i % 100, teamId, "team" + teamId));
+            columns.add((long) i, "member" + i, i % 100, teamId, "team" + teamId);
+        }
+        System.out.printf("%n[rows=%d gzip=%s] jackson=%d bytes, columnar=%d bytes%n",
+                rows, gzip, jackson().size(), columnar().size());
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream jackson() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = gzip ? new GZIPOutputStream(bytes) : bytes) {
+            objectMapper.writeValue(out, dtos);
+        }
+        return bytes;
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream columnar() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = gzip ? new GZIPOutputStream(bytes) : bytes) {
+            converter.write(columns, out);
+        }
+        return bytes;
+    }
+}
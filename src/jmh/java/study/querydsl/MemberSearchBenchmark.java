@@ -0,0 +1,58 @@
+package study.querydsl;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberSqlRepository;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * search() : JPA(JPQL + Hibernate) vs querydsl-sql
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class MemberSearchBenchmark {
+    @Param({"10", "1000"})
+    int membersPerTeam;
+
+    ConfigurableApplicationContext context;
+    MemberJpaRepository jpaRepository;
+    MemberSqlRepository sqlRepository;
+    MemberSearchCondition condition;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkSupport.start("app.search.engine=sql");
+        BenchmarkSupport.seed(context, 10, membersPerTeam);
+        jpaRepository = context.getBean(MemberJpaRepository.class);
+        sqlRepository = context.getBean(MemberSqlRepository.class);
+
+        condition = new MemberSearchCondition();
+        condition.setTeamName("team3");
+        condition.setAgeGoe(20);
+        condition.setAgeLoe(60);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> jpa() {
+        return jpaRepository.search(condition);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> sql() {
+        return sqlRepository.search(condition);
+    }
+}
@@ -0,0 +1,74 @@
+package study.querydsl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.querydsl.entity.Member;
+import study.querydsl.service.MemberUpdateService;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 낙관적 락 + 재시도 회원 수정의 처리량. 쓰기 스레드 수(1/4/16)와 수정 대상 회원 수(hotMembers)를 바꿔가며
+ * 충돌이 늘어날 때 처리량이 어떻게 떨어지는지 본다. 재시도/포기 횟수는 trial 이 끝날 때 출력한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class MemberUpdateContentionBenchmark {
+    @Param({"1", "16", "1024"})
+    int hotMembers;
+
+    ConfigurableApplicationContext context;
+    MemberUpdateService memberUpdateService;
+    Long[] memberIds;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkSupport.start("app.member.update.max-attempts=50");
+        BenchmarkSupport.seed(context, 1, hotMembers);
+        memberUpdateService = context.getBean(MemberUpdateService.class);
+        List<Long> ids = context.getBean(EntityManager.class)
+                .createQuery("select m.id from Member m", Long.class)
+                .getResultList();
+        memberIds = ids.toArray(new Long[0]);
+    }
+
+    @TearDown
+    public void tearDown() {
+        MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+        System.out.printf("%n[hotMembers=%d] retries=%.0f exhausted=%.0f%n", hotMembers,
+                meterRegistry.counter("member.update.retry").count(),
+                meterRegistry.counter("member.update.exhausted").count());
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void writers01() {
+        changeRandomMember();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void writers04() {
+        changeRandomMember();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void writers16() {
+        changeRandomMember();
+    }
+
+    private void changeRandomMember() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        memberUpdateService.changeAge(memberIds[random.nextInt(memberIds.length)], random.nextInt(100));
+    }
+}
@@ -0,0 +1,53 @@
+package study.querydsl;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 기동 시작부터 /v1/members 첫 응답까지 걸린 시간(time-to-first-request).
+ * 클래스 로딩까지 포함해서 재려고 매 측정마다 새 JVM 을 띄운다.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(10)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+public class StartupBenchmark {
+    @Param({"local", "local,fast,memdb"})
+    String profiles;
+
+    ConfigurableApplicationContext context;
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int timeToFirstRequest() throws Exception {
+        context = new SpringApplicationBuilder(QuerydslApplication.class)
+                .properties(
+                        "spring.profiles.active=" + profiles,
+                        "server.port=0",
+                        "logging.level.org.hibernate.SQL=warn",
+                        "logging.level.org.hibernate.type=warn")
+                .run();
+        String port = context.getEnvironment().getProperty("local.server.port");
+
+        HttpResponse<String> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/v1/members?teamName=teamA")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("unexpected status " + response.statusCode());
+        }
+        return response.body().length();
+    }
+}
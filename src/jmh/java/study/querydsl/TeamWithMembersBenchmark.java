@@ -0,0 +1,92 @@
+package study.querydsl;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.TeamWithMembersDto;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.TeamJpaRepository;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 팀 한 페이지 + 회원 목록 : groupBy transform vs fetch join vs 지연 로딩(N+1)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class TeamWithMembersBenchmark {
+    static final int PAGE_SIZE = 20;
+
+    @Param({"10", "200"})
+    int membersPerTeam;
+
+    ConfigurableApplicationContext context;
+    TeamJpaRepository teamJpaRepository;
+    JPAQueryFactory queryFactory;
+    TransactionTemplate tx;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkSupport.start();
+        BenchmarkSupport.seed(context, 100, membersPerTeam);
+        teamJpaRepository = context.getBean(TeamJpaRepository.class);
+        queryFactory = context.getBean(JPAQueryFactory.class);
+        tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        tx.setReadOnly(true);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<TeamWithMembersDto> groupByTransform() {
+        return teamJpaRepository.findTeamsWithMembers(PageRequest.of(1, PAGE_SIZE)).getContent();
+    }
+
+    /**
+     * 컬렉션 fetch join + offset/limit 은 DB 에서 페이징하지 못하고 전체를 읽어 메모리에서 자른다.
+     */
+    @Benchmark
+    public List<TeamWithMembersDto> fetchJoin() {
+        return tx.execute(status -> toDto(queryFactory
+                .selectFrom(team).distinct()
+                .leftJoin(team.members, member).fetchJoin()
+                .orderBy(team.id.asc())
+                .offset(PAGE_SIZE)
+                .limit(PAGE_SIZE)
+                .fetch()));
+    }
+
+    @Benchmark
+    public List<TeamWithMembersDto> lazyLoading() {
+        return tx.execute(status -> toDto(queryFactory
+                .selectFrom(team)
+                .orderBy(team.id.asc())
+                .offset(PAGE_SIZE)
+                .limit(PAGE_SIZE)
+                .fetch()));
+    }
+
+    private List<TeamWithMembersDto> toDto(List<Team> teams) {
+        return teams.stream()
+                .map(t -> new TeamWithMembersDto(t.getId(), t.getName(), t.getMembers().stream()
+                        .map(m -> new MemberDto(m.getUsername(), m.getAge()))
+                        .collect(Collectors.toList())))
+                .collect(Collectors.toList());
+    }
+}
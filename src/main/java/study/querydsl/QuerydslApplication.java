@@ -1,7 +1,11 @@
 package study.querydsl;
 
+import com.querydsl.jpa.impl.JPAQueryFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
+
+import javax.persistence.EntityManager;
 
 @SpringBootApplication
 public class QuerydslApplication {
@@ -10,4 +14,14 @@ public class QuerydslApplication {
 		SpringApplication.run(QuerydslApplication.class, args);
 	}
 
+	/**
+	 * 애플리케이션 전체에서 하나만 쓴다.
+	 * 주입되는 EntityManager 는 공유 프록시라서 실제 EntityManager 는 트랜잭션(스레드)마다 따로 바인딩된다.
+	 * JPAQueryFactory 자체는 상태가 없고 쿼리마다 새 JPAQuery 를 만들기 때문에 동시에 써도 안전하다.
+	 */
+	@Bean
+	JPAQueryFactory jpaQueryFactory(EntityManager em) {
+		return new JPAQueryFactory(em);
+	}
+
 }
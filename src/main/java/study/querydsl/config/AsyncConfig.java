@@ -0,0 +1,12 @@
+package study.querydsl.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/**
+ * @Async 메서드는 Boot 가 만드는 applicationTaskExecutor 에서 실행된다.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+}
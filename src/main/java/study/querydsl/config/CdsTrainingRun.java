@@ -0,0 +1,23 @@
+package study.querydsl.config;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * CDS 아카이브 생성(./gradlew cdsArchive)용: 기동이 끝나면 바로 종료해서 로딩된 클래스를 덤프하게 한다.
+ */
+@Component
+@ConditionalOnProperty(name = "app.startup.exit-on-ready", havingValue = "true")
+public class CdsTrainingRun {
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void exit(ApplicationReadyEvent event) {
+        System.exit(SpringApplication.exit(event.getApplicationContext()));
+    }
+}
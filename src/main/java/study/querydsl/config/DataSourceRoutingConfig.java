@@ -0,0 +1,51 @@
+package study.querydsl.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import study.querydsl.repository.MemberDataVersion;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * app.datasource.routing.enabled=true 일 때 primary / replica 두 개의 커넥션 풀을 만든다.
+ * 회원 데이터가 바뀐 뒤 replica-lag 동안은 읽기도 primary 로 보낸다 (MemberDataVersion, ETag 캐시 보호).
+ * 각 풀은 빈으로 등록되므로 hikaricp.* 메트릭이 pool 태그별로 따로 수집된다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.routing.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("app.datasource.primary")
+    public HikariDataSource primaryDataSource() {
+        return DataSourceBuilder.create().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.replica")
+    public HikariDataSource replicaDataSource() {
+        return DataSourceBuilder.create().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 @Value("${app.datasource.routing.replica-retry-after:30s}") Duration replicaRetryAfter,
+                                 @Value("${app.datasource.routing.replica-lag:1s}") Duration replicaLag,
+                                 MemberDataVersion memberDataVersion,
+                                 MeterRegistry meterRegistry) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica, replicaRetryAfter,
+                replicaLag, memberDataVersion::getChangedAt, meterRegistry));
+    }
+}
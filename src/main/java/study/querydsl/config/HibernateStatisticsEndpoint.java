@@ -0,0 +1,23 @@
+package study.querydsl.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * GET /actuator/hibernatestats : 가장 최근 샘플링 구간의 Hibernate 통계
+ */
+@Component
+@Endpoint(id = "hibernatestats")
+@ConditionalOnProperty(name = "app.hibernate-stats.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class HibernateStatisticsEndpoint {
+    private final HibernateStatisticsSampler sampler;
+
+    @ReadOperation
+    public HibernateStatisticsSnapshot latest() {
+        return sampler.getLatest();
+    }
+}
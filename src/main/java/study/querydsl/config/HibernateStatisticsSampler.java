@@ -0,0 +1,138 @@
+package study.querydsl.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import study.querydsl.config.HibernateStatisticsSnapshot.QuerySnapshot;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Hibernate Statistics 를 항상 켜두지 않고 sample-every 구간 중 한 구간(window-ms)만 켜서 수집한다.
+ * 구간이 끝나면 값을 스냅샷으로 남기고 통계를 비운다. 스냅샷은 /actuator/hibernatestats 와
+ * querydsl.hibernate.sampled.* 메트릭으로 노출된다. 쿼리별 메트릭은 구간마다 지우고 그 구간의 상위 max-queries 개로
+ * 다시 등록한다(태그 폭증 방지, 나중에 뜨거워진 쿼리도 보이도록).
+ * 메트릭 이름이 hibernate.* 로 시작하면 management.metrics.enable.hibernate=false 에 같이 꺼지므로 접두어를 따로 둔다.
+ * Statistics 는 첫 tick() 에서 꺼낸다. 생성 시점에 unwrap 하면 deferred bootstrap 중인 EntityManagerFactory 를 기다리게 된다.
+ * 주기 호출은 HibernateStatisticsScheduler 가 한다(이 빈은 lazy 로 둔다).
+ */
+@Component
+@ConditionalOnProperty(name = "app.hibernate-stats.enabled", havingValue = "true", matchIfMissing = true)
+public class HibernateStatisticsSampler {
+    private final EntityManagerFactory entityManagerFactory;
+    private final MeterRegistry meterRegistry;
+    private final int sampleEvery;
+    private final int maxQueries;
+    private final List<Meter> queryMeters = new ArrayList<>();
+
+    private Statistics statistics;
+
+    private long tick;
+    private long windowStartedAt;
+    private volatile HibernateStatisticsSnapshot latest = HibernateStatisticsSnapshot.EMPTY;
+
+    public HibernateStatisticsSampler(EntityManagerFactory entityManagerFactory, MeterRegistry meterRegistry,
+                                      @Value("${app.hibernate-stats.sample-every:6}") int sampleEvery,
+                                      @Value("${app.hibernate-stats.max-queries:50}") int maxQueries) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.meterRegistry = meterRegistry;
+        this.sampleEvery = Math.max(sampleEvery, 1);
+        this.maxQueries = maxQueries;
+
+        gauge("querydsl.hibernate.sampled.query.plan.cache.hit.ratio", HibernateStatisticsSnapshot::getQueryPlanCacheHitRatio);
+        gauge("querydsl.hibernate.sampled.query.executions", HibernateStatisticsSnapshot::getQueryExecutionCount);
+        gauge("querydsl.hibernate.sampled.query.execution.max.ms", HibernateStatisticsSnapshot::getQueryExecutionMaxTime);
+        gauge("querydsl.hibernate.sampled.statements.prepared", HibernateStatisticsSnapshot::getPrepareStatementCount);
+        gauge("querydsl.hibernate.sampled.entity.loads", HibernateStatisticsSnapshot::getEntityLoadCount);
+        gauge("querydsl.hibernate.sampled.entity.fetches", HibernateStatisticsSnapshot::getEntityFetchCount);
+        gauge("querydsl.hibernate.sampled.collection.loads", HibernateStatisticsSnapshot::getCollectionLoadCount);
+        gauge("querydsl.hibernate.sampled.collection.fetches", HibernateStatisticsSnapshot::getCollectionFetchCount);
+    }
+
+    public HibernateStatisticsSnapshot getLatest() {
+        return latest;
+    }
+
+    public synchronized void tick() {
+        if (statistics == null) {
+            statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        }
+        if (statistics.isStatisticsEnabled()) {
+            latest = snapshot();
+            registerQueryMeters(latest);
+        }
+        statistics.clear();
+        statistics.setStatisticsEnabled(tick++ % sampleEvery == 0);
+        windowStartedAt = System.currentTimeMillis();
+    }
+
+    private HibernateStatisticsSnapshot snapshot() {
+        List<QuerySnapshot> queries = new ArrayList<>();
+        for (String query : statistics.getQueries()) {
+            QueryStatistics queryStatistics = statistics.getQueryStatistics(query);
+            queries.add(QuerySnapshot.builder()
+                    .query(query)
+                    .executionCount(queryStatistics.getExecutionCount())
+                    .executionAvgTime(queryStatistics.getExecutionAvgTime())
+                    .executionMaxTime(queryStatistics.getExecutionMaxTime())
+                    .executionTotalTime(queryStatistics.getExecutionTotalTime())
+                    .executionRowCount(queryStatistics.getExecutionRowCount())
+                    .planCacheHitCount(queryStatistics.getPlanCacheHitCount())
+                    .planCacheMissCount(queryStatistics.getPlanCacheMissCount())
+                    .build());
+        }
+        long now = System.currentTimeMillis();
+        return HibernateStatisticsSnapshot.builder()
+                .sampledAt(now)
+                .windowMillis(now - windowStartedAt)
+                .queryPlanCacheHitCount(statistics.getQueryPlanCacheHitCount())
+                .queryPlanCacheMissCount(statistics.getQueryPlanCacheMissCount())
+                .queryExecutionCount(statistics.getQueryExecutionCount())
+                .queryExecutionMaxTime(statistics.getQueryExecutionMaxTime())
+                .prepareStatementCount(statistics.getPrepareStatementCount())
+                .entityLoadCount(statistics.getEntityLoadCount())
+                .entityFetchCount(statistics.getEntityFetchCount())
+                .collectionLoadCount(statistics.getCollectionLoadCount())
+                .collectionFetchCount(statistics.getCollectionFetchCount())
+                .sessionOpenCount(statistics.getSessionOpenCount())
+                .transactionCount(statistics.getTransactionCount())
+                .queries(queries.stream()
+                        .sorted(Comparator.comparingLong(QuerySnapshot::getExecutionTotalTime).reversed())
+                        .limit(maxQueries)
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    private void registerQueryMeters(HibernateStatisticsSnapshot snapshot) {
+        queryMeters.forEach(meterRegistry::remove);
+        queryMeters.clear();
+        for (QuerySnapshot query : snapshot.getQueries()) {
+            queryMeters.add(queryGauge("querydsl.hibernate.sampled.query.executions.by.query", query, QuerySnapshot::getExecutionCount));
+            queryMeters.add(queryGauge("querydsl.hibernate.sampled.query.execution.avg.ms", query, QuerySnapshot::getExecutionAvgTime));
+            queryMeters.add(queryGauge("querydsl.hibernate.sampled.query.execution.max.ms.by.query", query, QuerySnapshot::getExecutionMaxTime));
+        }
+    }
+
+    private void gauge(String name, ToDoubleFunction<HibernateStatisticsSnapshot> value) {
+        Gauge.builder(name, this, sampler -> value.applyAsDouble(sampler.latest))
+                .register(meterRegistry);
+    }
+
+    private Gauge queryGauge(String name, QuerySnapshot query, ToDoubleFunction<QuerySnapshot> value) {
+        return Gauge.builder(name, query, value)
+                .tag("query", query.getQuery())
+                .strongReference(true)
+                .register(meterRegistry);
+    }
+}
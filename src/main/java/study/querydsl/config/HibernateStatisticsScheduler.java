@@ -0,0 +1,27 @@
+package study.querydsl.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * HibernateStatisticsSampler 를 window-ms 마다 호출한다.
+ * lazy-initialization(fast 프로필)에서도 스케줄이 돌도록 이 빈만 바로 만들고, 샘플러(와 EntityManagerFactory)는
+ * 첫 구간이 끝날 때 꺼낸다.
+ */
+@Component
+@Lazy(false)
+@ConditionalOnProperty(name = "app.hibernate-stats.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class HibernateStatisticsScheduler {
+    private final ObjectProvider<HibernateStatisticsSampler> sampler;
+
+    @Scheduled(initialDelayString = "${app.hibernate-stats.window-ms:10000}",
+            fixedDelayString = "${app.hibernate-stats.window-ms:10000}")
+    public void tick() {
+        sampler.getObject().tick();
+    }
+}
@@ -0,0 +1,54 @@
+package study.querydsl.config;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 샘플링 구간 하나 동안의 Hibernate Statistics. 값은 모두 해당 구간 기준이다.
+ */
+@Getter
+@Builder
+public class HibernateStatisticsSnapshot {
+    public static final HibernateStatisticsSnapshot EMPTY = HibernateStatisticsSnapshot.builder()
+            .queries(Collections.emptyList())
+            .build();
+
+    private final long sampledAt;
+    private final long windowMillis;
+
+    private final long queryPlanCacheHitCount;
+    private final long queryPlanCacheMissCount;
+    private final long queryExecutionCount;
+    private final long queryExecutionMaxTime;
+    private final long prepareStatementCount;
+    private final long entityLoadCount;
+    private final long entityFetchCount;
+    private final long collectionLoadCount;
+    private final long collectionFetchCount;
+    private final long sessionOpenCount;
+    private final long transactionCount;
+
+    // 총 실행 시간 순으로 정렬된 쿼리별 통계 (max-queries 개까지)
+    private final List<QuerySnapshot> queries;
+
+    public double getQueryPlanCacheHitRatio() {
+        long total = queryPlanCacheHitCount + queryPlanCacheMissCount;
+        return total == 0 ? 0 : (double) queryPlanCacheHitCount / total;
+    }
+
+    @Getter
+    @Builder
+    public static class QuerySnapshot {
+        private final String query;
+        private final long executionCount;
+        private final long executionAvgTime;
+        private final long executionMaxTime;
+        private final long executionTotalTime;
+        private final long executionRowCount;
+        private final long planCacheHitCount;
+        private final long planCacheMissCount;
+    }
+}
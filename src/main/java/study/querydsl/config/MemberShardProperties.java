@@ -0,0 +1,18 @@
+package study.querydsl.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties("app.sharding")
+public class MemberShardProperties {
+    private boolean enabled;
+    // shard 순서가 곧 shard 번호다. 순서를 바꾸면 팀 -> shard 매핑이 바뀐다
+    private List<String> urls = new ArrayList<>();
+    private String username = "sa";
+    private String password = "";
+    private String ddlAuto = "none";
+}
@@ -0,0 +1,78 @@
+package study.querydsl.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.orm.jpa.EntityManagerFactoryBuilder;
+import org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy;
+import org.springframework.boot.orm.jpa.hibernate.SpringPhysicalNamingStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.ShardIdGenerator;
+import study.querydsl.repository.MemberDataVersion;
+import study.querydsl.repository.MemberShards;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * app.sharding.enabled=true 이면 app.sharding.urls 마다 DataSource + EntityManagerFactory 를 만든다.
+ * 기본 DataSource(단일 DB)는 그대로 두고, MemberJpaRepository 의 회원 조회/검색과 검색 비용 추정을 MemberShards 로 분산한다.
+ * querydsl-sql 검색(app.search.engine=sql)은 기본 DataSource 만 보므로 같이 켤 수 없다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.sharding.enabled", havingValue = "true")
+@EnableConfigurationProperties(MemberShardProperties.class)
+public class MemberShardingConfig {
+
+    // lazy-initialization(fast 프로필)에서도 기동 시점에 설정 오류를 드러낸다
+    @Bean(destroyMethod = "close")
+    @Lazy(false)
+    public MemberShards memberShards(MemberShardProperties properties, EntityManagerFactoryBuilder builder,
+                                     MemberDataVersion dataVersion,
+                                     @Value("${app.search.engine:jpa}") String searchEngine) {
+        if ("sql".equals(searchEngine)) {
+            throw new IllegalStateException("app.sharding.enabled=true is not supported with app.search.engine=sql");
+        }
+
+        List<HikariDataSource> dataSources = new ArrayList<>();
+        List<EntityManagerFactory> entityManagerFactories = new ArrayList<>();
+        for (int i = 0; i < properties.getUrls().size(); i++) {
+            Map<String, Object> jpaProperties = new HashMap<>();
+            jpaProperties.put(AvailableSettings.HBM2DDL_AUTO, properties.getDdlAuto());
+            jpaProperties.put(AvailableSettings.PHYSICAL_NAMING_STRATEGY, SpringPhysicalNamingStrategy.class.getName());
+            jpaProperties.put(AvailableSettings.IMPLICIT_NAMING_STRATEGY, SpringImplicitNamingStrategy.class.getName());
+            jpaProperties.put(ShardIdGenerator.SHARD_INDEX, i);
+            jpaProperties.put(ShardIdGenerator.SHARD_COUNT, properties.getUrls().size());
+
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(properties.getUrls().get(i))
+                    .username(properties.getUsername())
+                    .password(properties.getPassword())
+                    .build();
+            dataSource.setPoolName("shard" + i);
+
+            LocalContainerEntityManagerFactoryBean factoryBean = builder
+                    .dataSource(dataSource)
+                    .packages(Member.class)
+                    .persistenceUnit("shard" + i)
+                    .properties(jpaProperties)
+                    .build();
+            factoryBean.afterPropertiesSet();
+
+            dataSources.add(dataSource);
+            entityManagerFactories.add(factoryBean.getObject());
+        }
+        return new MemberShards(entityManagerFactories, dataSources, dataVersion);
+    }
+}
@@ -0,0 +1,100 @@
+package study.querydsl.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * readOnly 트랜잭션은 replica, 그 외에는 primary 커넥션을 준다.
+ * replica 커넥션을 얻지 못하면(SQLException, 풀 초기화 실패 등) primary 로 대신 보내고, replicaRetryAfter 동안은 replica 를 다시 시도하지 않는다.
+ * 마지막 쓰기(lastWriteAt) 후 replicaLag 동안은 readOnly 라도 primary 로 보낸다. 그 사이 replica 에서 읽은 이전 데이터가
+ * 새 ETag 로 캐시되지 않도록 하기 위해서다.
+ * 트랜잭션 시작 시점에는 readOnly 여부가 아직 동기화되지 않으므로 LazyConnectionDataSourceProxy 로 감싸서 사용한다.
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    public static final String PRIMARY = "primary";
+    public static final String REPLICA = "replica";
+
+    private final long replicaRetryAfterMillis;
+    private final long replicaLagMillis;
+    private final LongSupplier lastWriteAt;
+    private final Counter primaryRoutes;
+    private final Counter replicaRoutes;
+    private final Counter replicaFallbacks;
+
+    private volatile long replicaDownUntil;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, Duration replicaRetryAfter) {
+        this(primary, replica, replicaRetryAfter, Metrics.globalRegistry);
+    }
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, Duration replicaRetryAfter,
+                                      MeterRegistry meterRegistry) {
+        this(primary, replica, replicaRetryAfter, Duration.ZERO, () -> 0L, meterRegistry);
+    }
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, Duration replicaRetryAfter,
+                                      Duration replicaLag, LongSupplier lastWriteAt, MeterRegistry meterRegistry) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        targets.put(REPLICA, replica);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+
+        this.replicaRetryAfterMillis = replicaRetryAfter.toMillis();
+        this.replicaLagMillis = replicaLag.toMillis();
+        this.lastWriteAt = lastWriteAt;
+        this.primaryRoutes = meterRegistry.counter("datasource.routing", "target", PRIMARY);
+        this.replicaRoutes = meterRegistry.counter("datasource.routing", "target", REPLICA);
+        this.replicaFallbacks = meterRegistry.counter("datasource.routing.fallback");
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        long now = System.currentTimeMillis();
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && now >= replicaDownUntil
+                && now - lastWriteAt.getAsLong() >= replicaLagMillis) {
+            return REPLICA;
+        }
+        return PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!REPLICA.equals(determineCurrentLookupKey())) {
+            primaryRoutes.increment();
+            return determineTargetDataSource().getConnection();
+        }
+        try {
+            Connection connection = determineTargetDataSource().getConnection();
+            replicaRoutes.increment();
+            return connection;
+        } catch (SQLException | RuntimeException e) {
+            // Hikari 는 풀을 처음 띄울 때 실패하면 PoolInitializationException(RuntimeException) 을 던진다
+            log.warn("replica connection failed, falling back to primary for {} ms", replicaRetryAfterMillis, e);
+            replicaDownUntil = System.currentTimeMillis() + replicaRetryAfterMillis;
+            replicaFallbacks.increment();
+            primaryRoutes.increment();
+            return ((DataSource) getResolvedDataSources().get(PRIMARY)).getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return getConnection();
+    }
+}
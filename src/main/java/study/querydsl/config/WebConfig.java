@@ -0,0 +1,16 @@
+package study.querydsl.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import study.querydsl.dto.MemberTeamColumnarHttpMessageConverter;
+
+@Configuration
+public class WebConfig {
+
+    // HttpMessageConverter 빈은 Spring Boot 가 기본 컨버터 목록에 추가한다
+    @Bean
+    public MemberTeamColumnarHttpMessageConverter memberTeamColumnarHttpMessageConverter(ObjectMapper objectMapper) {
+        return new MemberTeamColumnarHttpMessageConverter(objectMapper.getFactory());
+    }
+}
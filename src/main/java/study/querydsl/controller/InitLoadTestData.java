@@ -0,0 +1,182 @@
+package study.querydsl.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberDataVersion;
+import study.querydsl.repository.MemberShards;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * 부하 테스트용 데이터. InitMember 의 100명 대신 설정한 분포로 팀/회원을 만든다.
+ * <ul>
+ *     <li>팀 배정: Zipf(team-skew) - 앞 번호 팀일수록 회원이 많다 (0 이면 균등)</li>
+ *     <li>나이: 정규분포(age-mean, age-stddev) 를 [age-min, age-max] 로 자른 값</li>
+ * </ul>
+ * 회원 이름은 member{번호}, 팀 이름은 team{번호} 이고 loadtest 모듈의 검색 조건도 이 규칙을 쓴다.
+ * 샤딩이 켜져 있으면 팀은 팀 이름의 shard 에, 회원은 배정된 팀의 shard 에 저장한다.
+ */
+@Slf4j
+@Profile("loadtest")
+@Component
+public class InitLoadTestData {
+    private static final int CHUNK_SIZE = 1000;
+
+    @PersistenceContext
+    private EntityManager em;
+    private final TransactionTemplate transactionTemplate;
+    private final MemberDataVersion memberDataVersion;
+    private final ObjectProvider<MemberShards> shards;
+
+    private final int teams;
+    private final int members;
+    private final double teamSkew;
+    private final double ageMean;
+    private final double ageStddev;
+    private final int ageMin;
+    private final int ageMax;
+    private final long seed;
+
+    public InitLoadTestData(TransactionTemplate transactionTemplate, MemberDataVersion memberDataVersion,
+                            ObjectProvider<MemberShards> shards,
+                            @Value("${app.loadtest.teams:100}") int teams,
+                            @Value("${app.loadtest.members:100000}") int members,
+                            @Value("${app.loadtest.team-skew:1.0}") double teamSkew,
+                            @Value("${app.loadtest.age-mean:35}") double ageMean,
+                            @Value("${app.loadtest.age-stddev:12}") double ageStddev,
+                            @Value("${app.loadtest.age-min:0}") int ageMin,
+                            @Value("${app.loadtest.age-max:99}") int ageMax,
+                            @Value("${app.loadtest.seed:42}") long seed) {
+        this.transactionTemplate = transactionTemplate;
+        this.memberDataVersion = memberDataVersion;
+        this.shards = shards;
+        this.teams = teams;
+        this.members = members;
+        this.teamSkew = teamSkew;
+        this.ageMean = ageMean;
+        this.ageStddev = ageStddev;
+        this.ageMin = ageMin;
+        this.ageMax = ageMax;
+        this.seed = seed;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        long start = System.currentTimeMillis();
+        Random random = new Random(seed);
+        double[] teamCdf = zipfCdf(teams, teamSkew);
+
+        MemberShards memberShards = shards.getIfAvailable();
+        if (memberShards != null) {
+            initShards(memberShards, random, teamCdf);
+        } else {
+            initDefault(random, teamCdf);
+        }
+        memberDataVersion.bump();
+        log.info("load test data: {} teams, {} members in {} ms", teams, members, System.currentTimeMillis() - start);
+    }
+
+    private void initDefault(Random random, double[] teamCdf) {
+        Long[] teamIds = transactionTemplate.execute(status -> {
+            Long[] ids = new Long[teams];
+            for (int t = 0; t < teams; t++) {
+                Team team = new Team("team" + t);
+                em.persist(team);
+                ids[t] = team.getId();
+            }
+            return ids;
+        });
+
+        for (int from = 0; from < members; from += CHUNK_SIZE) {
+            int to = Math.min(from + CHUNK_SIZE, members);
+            int chunkStart = from;
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = chunkStart; i < to; i++) {
+                    Team team = em.getReference(Team.class, teamIds[pickTeam(teamCdf, random.nextDouble())]);
+                    Member member = new Member("member" + i, pickAge(random));
+                    member.setTeam(team);
+                    em.persist(member);
+                }
+                em.flush();
+                em.clear();
+            });
+        }
+    }
+
+    private void initShards(MemberShards memberShards, Random random, double[] teamCdf) {
+        Long[] teamIds = new Long[teams];
+        for (int t = 0; t < teams; t++) {
+            String teamName = "team" + t;
+            int index = t;
+            memberShards.write(teamName, shardEm -> {
+                Team team = new Team(teamName);
+                shardEm.persist(team);
+                teamIds[index] = team.getId();
+            });
+        }
+
+        for (int from = 0; from < members; from += CHUNK_SIZE) {
+            int to = Math.min(from + CHUNK_SIZE, members);
+            // 난수는 기본 DB 경로와 같은 순서로 뽑고, 회원은 팀의 shard 별로 모아서 저장한다
+            List<Map<Member, Long>> byShard = new ArrayList<>();
+            for (int shard = 0; shard < memberShards.size(); shard++) {
+                byShard.add(new LinkedHashMap<>());
+            }
+            for (int i = from; i < to; i++) {
+                Long teamId = teamIds[pickTeam(teamCdf, random.nextDouble())];
+                byShard.get(memberShards.shardOfId(teamId)).put(new Member("member" + i, pickAge(random)), teamId);
+            }
+            for (int shard = 0; shard < byShard.size(); shard++) {
+                Map<Member, Long> chunk = byShard.get(shard);
+                if (chunk.isEmpty()) {
+                    continue;
+                }
+                memberShards.writeShard(shard, shardEm -> {
+                    chunk.forEach((member, teamId) -> {
+                        member.setTeam(shardEm.getReference(Team.class, teamId));
+                        shardEm.persist(member);
+                    });
+                    return null;
+                });
+            }
+        }
+    }
+
+    private int pickAge(Random random) {
+        long age = Math.round(ageMean + random.nextGaussian() * ageStddev);
+        return (int) Math.max(ageMin, Math.min(ageMax, age));
+    }
+
+    private static double[] zipfCdf(int n, double skew) {
+        double[] cdf = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1 / Math.pow(k + 1, skew);
+            cdf[k] = sum;
+        }
+        for (int k = 0; k < n; k++) {
+            cdf[k] /= sum;
+        }
+        return cdf;
+    }
+
+    private static int pickTeam(double[] cdf, double p) {
+        int index = Arrays.binarySearch(cdf, p);
+        return Math.min(index >= 0 ? index : -index - 1, cdf.length - 1);
+    }
+}
@@ -1,14 +1,19 @@
 package study.querydsl.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Controller;
 import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberDataVersion;
+import study.querydsl.repository.MemberShards;
 
-import javax.annotation.PostConstruct;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 
@@ -17,16 +22,42 @@ import javax.persistence.PersistenceContext;
 @RequiredArgsConstructor
 public class InitMember {
     private final InitMemberService initMemberService;
+    private final ObjectProvider<MemberShards> shards;
 
-    @PostConstruct
+    // 기동 경로(빈 초기화)를 막지 않도록 웹 서버가 뜬 뒤에 applicationTaskExecutor 에서 데이터를 넣는다
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
     public void init(){
+        MemberShards memberShards = shards.getIfAvailable();
+        if (memberShards != null) {
+            initShards(memberShards);
+            return;
+        }
         initMemberService.init();
     }
 
+    // 팀마다 그 팀의 shard 에 팀과 회원을 함께 저장한다 (회원 번호가 짝수면 teamA, 홀수면 teamB)
+    private void initShards(MemberShards memberShards) {
+        String[] teamNames = {"teamA", "teamB"};
+        for (int t = 0; t < teamNames.length; t++) {
+            String teamName = teamNames[t];
+            int first = t;
+            memberShards.write(teamName, em -> {
+                Team team = new Team(teamName);
+                em.persist(team);
+                for (int i = first; i < 100; i += teamNames.length) {
+                    em.persist(new Member("member" + i, i, team));
+                }
+            });
+        }
+    }
+
     @Component
+    @RequiredArgsConstructor
     static class InitMemberService {
         @PersistenceContext
         private EntityManager em;
+        private final MemberDataVersion memberDataVersion;
 
         @Transactional
         public void init(){
@@ -39,6 +70,7 @@ public class InitMember {
                 Team selectedTeam = i%2 == 0 ? teamA : teamB;
                 em.persist(new Member("member" + i, i, selectedTeam));
             }
+            memberDataVersion.bump();
         }
     }
 }
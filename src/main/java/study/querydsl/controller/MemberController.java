@@ -1,21 +1,93 @@
 package study.querydsl.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamColumnarHttpMessageConverter;
+import study.querydsl.dto.MemberTeamColumns;
 import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberDataVersion;
 import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberSearchRepository;
+import study.querydsl.service.MemberSearchAdmission;
 
+import javax.servlet.http.HttpServletResponse;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
+    // admission 이 row-cap 으로 잘라낸 응답에 붙는다
+    public static final String RESULT_TRUNCATED = "X-Result-Truncated";
+    public static final String RESULT_LIMIT = "X-Result-Limit";
+
     private final MemberJpaRepository memberJpaRepository;
+    private final MemberSearchRepository memberSearchRepository;
+    private final MemberDataVersion memberDataVersion;
+    private final MemberSearchAdmission memberSearchAdmission;
+
+    @Value("${app.search.batch.max-size:100}")
+    private int maxBatchSize;
 
     @GetMapping("/v1/members")
-    public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition){
-        return memberJpaRepository.search(condition);
+    public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition, WebRequest request,
+                                              HttpServletResponse response){
+        if (notModified(request, "json")) {
+            return null;
+        }
+        return memberSearchAdmission.execute(condition,
+                () -> memberSearchRepository.search(condition),
+                limit -> {
+                    List<MemberTeamDto> result = memberSearchRepository.search(condition, limit);
+                    markTruncated(response, limit, result.size());
+                    return result;
+                });
+    }
+
+    @GetMapping(value = "/v1/members", produces = MemberTeamColumnarHttpMessageConverter.COLUMNAR_JSON_VALUE)
+    public MemberTeamColumns searchMemberV1Columnar(MemberSearchCondition condition, WebRequest request,
+                                                    HttpServletResponse response){
+        if (notModified(request, "columnar")) {
+            return null;
+        }
+        return memberSearchAdmission.execute(condition,
+                () -> memberJpaRepository.searchColumnar(condition),
+                limit -> {
+                    MemberTeamColumns result = memberJpaRepository.searchColumnar(condition, limit);
+                    markTruncated(response, limit, result.getSize());
+                    return result;
+                });
+    }
+
+    @PostMapping("/v1/members/batch")
+    public Map<Integer, List<MemberTeamDto>> searchMemberBatch(@RequestBody List<MemberSearchCondition> conditions){
+        if (conditions.size() > maxBatchSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "batch size must be <= " + maxBatchSize);
+        }
+        if (conditions.contains(null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "search conditions must not contain null");
+        }
+        return memberSearchAdmission.executeBatch(conditions, () -> memberJpaRepository.searchBatch(conditions));
+    }
+
+    // limit 만큼 채워졌으면 뒤에 더 있을 수 있으므로 잘렸다고 알린다
+    private void markTruncated(HttpServletResponse response, long limit, int size) {
+        if (size >= limit) {
+            response.setHeader(RESULT_TRUNCATED, "true");
+            response.setHeader(RESULT_LIMIT, String.valueOf(limit));
+        }
+    }
+
+    // 데이터 버전이 같으면 304 응답을 세팅하고 쿼리를 건너뛴다
+    private boolean notModified(WebRequest request, String variant) {
+        return request.checkNotModified(memberDataVersion.etag(variant));
     }
 }
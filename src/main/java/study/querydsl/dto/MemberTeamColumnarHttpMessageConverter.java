@@ -0,0 +1,101 @@
+package study.querydsl.dto;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Accept: application/vnd.querydsl.columnar+json 일 때 회원 검색 결과를 컬럼 배열로 쓴다.
+ * <pre>
+ * {"size":2,"memberId":[1,2],"username":["a","b"],"age":[10,20],"teamIndex":[0,-1],
+ *  "teams":{"id":[3],"name":["teamA"]}}
+ * </pre>
+ * 복사 없이 MemberTeamColumns 의 내부 배열을 size 까지만 읽으려고 같은 패키지에 둔다.
+ */
+public class MemberTeamColumnarHttpMessageConverter extends AbstractHttpMessageConverter<MemberTeamColumns> {
+    public static final String COLUMNAR_JSON_VALUE = "application/vnd.querydsl.columnar+json";
+    public static final MediaType COLUMNAR_JSON = MediaType.valueOf(COLUMNAR_JSON_VALUE);
+
+    private final JsonFactory jsonFactory;
+
+    public MemberTeamColumnarHttpMessageConverter(JsonFactory jsonFactory) {
+        super(COLUMNAR_JSON);
+        this.jsonFactory = jsonFactory;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return MemberTeamColumns.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected MemberTeamColumns readInternal(Class<? extends MemberTeamColumns> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("columnar format is write-only", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(MemberTeamColumns columns, HttpOutputMessage outputMessage) throws IOException {
+        write(columns, outputMessage.getBody());
+    }
+
+    public void write(MemberTeamColumns columns, OutputStream out) throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            int size = columns.size;
+            generator.writeStartObject();
+            generator.writeNumberField("size", size);
+
+            generator.writeArrayFieldStart("memberId");
+            for (int i = 0; i < size; i++) {
+                generator.writeNumber(columns.memberIds[i]);
+            }
+            generator.writeEndArray();
+
+            generator.writeArrayFieldStart("username");
+            for (int i = 0; i < size; i++) {
+                generator.writeString(columns.usernames[i]);
+            }
+            generator.writeEndArray();
+
+            generator.writeArrayFieldStart("age");
+            for (int i = 0; i < size; i++) {
+                generator.writeNumber(columns.ages[i]);
+            }
+            generator.writeEndArray();
+
+            generator.writeArrayFieldStart("teamIndex");
+            for (int i = 0; i < size; i++) {
+                generator.writeNumber(columns.teamIndexes[i]);
+            }
+            generator.writeEndArray();
+
+            generator.writeObjectFieldStart("teams");
+            generator.writeArrayFieldStart("id");
+            for (Long teamId : columns.teamIds) {
+                generator.writeNumber(teamId);
+            }
+            generator.writeEndArray();
+            generator.writeArrayFieldStart("name");
+            for (String teamName : columns.teamNames) {
+                generator.writeString(teamName);
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+
+            generator.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package study.querydsl.dto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MemberTeamDto 목록의 컬럼형 표현.
+ * row 마다 객체를 만들지 않고 컬럼별 배열에 쌓으며, 팀은 사전(teamIds/teamNames)의 인덱스로만 기록한다.
+ * 팀이 없는 회원의 teamIndex 는 -1 이다.
+ * 배열은 size 보다 크게 잡혀 있으므로 밖으로는 size 만큼 자른 복사본만 내보내고,
+ * 내부 배열은 같은 패키지의 MemberTeamColumnarHttpMessageConverter 만 직접 읽는다.
+ */
+public class MemberTeamColumns {
+    int size;
+    long[] memberIds = new long[16];
+    String[] usernames = new String[16];
+    int[] ages = new int[16];
+    int[] teamIndexes = new int[16];
+
+    final List<Long> teamIds = new ArrayList<>();
+    final List<String> teamNames = new ArrayList<>();
+    private final Map<Long, Integer> teamIndexById = new HashMap<>();
+
+    public int getSize() {
+        return size;
+    }
+
+    public long[] getMemberIds() {
+        return Arrays.copyOf(memberIds, size);
+    }
+
+    public String[] getUsernames() {
+        return Arrays.copyOf(usernames, size);
+    }
+
+    public int[] getAges() {
+        return Arrays.copyOf(ages, size);
+    }
+
+    public int[] getTeamIndexes() {
+        return Arrays.copyOf(teamIndexes, size);
+    }
+
+    public List<Long> getTeamIds() {
+        return Collections.unmodifiableList(teamIds);
+    }
+
+    public List<String> getTeamNames() {
+        return Collections.unmodifiableList(teamNames);
+    }
+
+    public void add(Long memberId, String username, int age, Long teamId, String teamName) {
+        if (size == memberIds.length) {
+            int capacity = size * 2;
+            memberIds = Arrays.copyOf(memberIds, capacity);
+            usernames = Arrays.copyOf(usernames, capacity);
+            ages = Arrays.copyOf(ages, capacity);
+            teamIndexes = Arrays.copyOf(teamIndexes, capacity);
+        }
+        memberIds[size] = memberId;
+        usernames[size] = username;
+        ages[size] = age;
+        teamIndexes[size] = teamId == null ? -1 : teamIndexById.computeIfAbsent(teamId, id -> {
+            teamIds.add(id);
+            teamNames.add(teamName);
+            return teamIds.size() - 1;
+        });
+        size++;
+    }
+}
@@ -1,20 +1,31 @@
 package study.querydsl.entity;
 
 import lombok.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.*;
 
 @Entity
+// 검색 비용 추정(MemberSearchCostEstimator)이 나이 범위 min/max 를 테이블을 훑지 않고 인덱스로 읽는다
+@Table(indexes = @Index(name = "idx_member_age", columnList = "age"))
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "username", "age"})
 public class Member {
-    @Id @GeneratedValue
+    @Id @GeneratedValue(generator = "member_id")
+    @GenericGenerator(name = "member_id", strategy = ShardIdGenerator.NAME,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "hibernate_sequence"))
     @Column(name = "member_id")
     private Long id;
     private String username;
     private int age;
 
+    @Version
+    @Setter(AccessLevel.NONE)
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "team_id")
     private Team team;
@@ -34,7 +45,12 @@ public class Member {
         }
     }
 
-    private void changeTeam(Team team) {
+    /**
+     * 연관관계의 주인인 member.team 만 바꾸면 저장된다.
+     * team.members 는 mappedBy(inverse) 컬렉션이라 초기화되지 않은 상태에서 add 하면
+     * Hibernate 가 add 를 큐에 쌓아두기만 하고 팀 회원 전체를 로딩하지 않는다.
+     */
+    public void changeTeam(Team team) {
         this.team = team;
         team.getMembers().add(this);
     }
@@ -0,0 +1,39 @@
+package study.querydsl.entity;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.io.Serializable;
+import java.util.Properties;
+
+/**
+ * shard 마다 시퀀스가 따로 있어도 id 가 겹치지 않도록 (시퀀스 값 * shard 수 + shard 번호) 를 id 로 쓴다.
+ * 그래서 id % shard 수 가 곧 그 row 가 있는 shard 번호다.
+ * shard 번호/수는 EntityManagerFactory 설정(SHARD_INDEX, SHARD_COUNT)으로 받고, 없으면 0/1 이라 시퀀스 값 그대로다.
+ */
+public class ShardIdGenerator extends SequenceStyleGenerator {
+    public static final String NAME = "study.querydsl.entity.ShardIdGenerator";
+    public static final String SHARD_INDEX = "app.sharding.shard-index";
+    public static final String SHARD_COUNT = "app.sharding.shard-count";
+
+    private int shardIndex;
+    private int shardCount;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) {
+        super.configure(type, params, serviceRegistry);
+        ConfigurationService configurationService = serviceRegistry.getService(ConfigurationService.class);
+        shardIndex = configurationService.getSetting(SHARD_INDEX, StandardConverters.INTEGER, 0);
+        shardCount = configurationService.getSetting(SHARD_COUNT, StandardConverters.INTEGER, 1);
+    }
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object object) {
+        long sequenceValue = ((Number) super.generate(session, object)).longValue();
+        return sequenceValue * shardCount + shardIndex;
+    }
+}
@@ -1,6 +1,12 @@
 package study.querydsl.entity;
 
 import lombok.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.LazyCollection;
+import org.hibernate.annotations.LazyCollectionOption;
+import org.hibernate.annotations.OptimisticLock;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.*;
 import java.util.ArrayList;
@@ -11,12 +17,23 @@ import java.util.List;
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id","name"})
 public class Team {
-    @Id @GeneratedValue
+    @Id @GeneratedValue(generator = "team_id")
+    @GenericGenerator(name = "team_id", strategy = ShardIdGenerator.NAME,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "hibernate_sequence"))
     @Column(name = "team_id")
     private Long id;
     private String name;
 
+    @Version
+    @Setter(AccessLevel.NONE)
+    private Long version;
+
+    // size(), contains() 는 컬렉션 전체를 읽지 않고 count/exists 쿼리로 처리한다
+    // 회원 목록은 MemberJpaRepository.findByTeam 으로 페이징해서 조회한다
+    // 회원이 들어오고 나가는 것으로 팀 version 을 올리지 않는다 (큰 팀에 쓰기가 몰려 충돌하지 않도록)
     @OneToMany(mappedBy = "team")
+    @LazyCollection(LazyCollectionOption.EXTRA)
+    @OptimisticLock(excluded = true)
     List<Member> members = new ArrayList<>();
 
     public Team(String name){
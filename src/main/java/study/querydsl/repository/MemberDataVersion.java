@@ -0,0 +1,51 @@
+package study.querydsl.repository;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 회원/팀 데이터 버전. 리포지토리를 통한 쓰기가 커밋되면 올라간다.
+ * 검색 응답의 ETag 로 쓰여서 데이터가 바뀌지 않았으면 쿼리 없이 304 를 돌려준다.
+ * Last-Modified 는 HTTP 날짜가 초 단위라 같은 초 안의 쓰기를 구분하지 못하므로(잘못된 304) 쓰지 않는다.
+ * 마지막으로 올라간 시각(changedAt)은 read/write 라우팅이 replica 지연 동안 읽기를 primary 로 보내는 데 쓴다.
+ */
+@Component
+public class MemberDataVersion {
+    // 재시작 후 이전 프로세스의 ETag 와 겹치지 않도록 기동 시각을 붙인다
+    private final long epoch = System.currentTimeMillis();
+    private final AtomicLong version = new AtomicLong();
+    private volatile long changedAt;
+
+    /**
+     * 트랜잭션 안이면 커밋 후에 올린다. 커밋 전에 올리면 이전 데이터가 새 버전으로 캐시될 수 있다.
+     */
+    public void bump() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    increment();
+                }
+            });
+        } else {
+            increment();
+        }
+    }
+
+    public String etag(String variant) {
+        return variant + "-" + epoch + "-" + version.get();
+    }
+
+    public long getChangedAt() {
+        return changedAt;
+    }
+
+    // 트랜잭션과 무관하게 바로 올린다. 커밋을 직접 관리하는 MemberShards 가 커밋 후에 부른다
+    void increment() {
+        changedAt = System.currentTimeMillis();
+        version.incrementAndGet();
+    }
+}
@@ -1,13 +1,22 @@
 package study.querydsl.repository;
 
 import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.Tuple;
 import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamColumns;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
 import study.querydsl.entity.Member;
@@ -15,53 +24,168 @@ import study.querydsl.entity.QMember;
 import study.querydsl.entity.QTeam;
 
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.springframework.util.StringUtils.*;
 import static study.querydsl.entity.QMember.member;
 import static study.querydsl.entity.QTeam.*;
 
+/**
+ * 샤딩(app.sharding.enabled)이 켜져 있으면 모든 조회/저장을 MemberShards 로 보내고 기본 DB 는 쓰지 않는다.
+ * 그래서 클래스에 @Transactional 을 두지 않고, 기본 DB 를 쓰는 경로만 TransactionTemplate 으로 트랜잭션을 연다.
+ * (샤딩 경로에서 기본 DB 커넥션을 잡지 않도록)
+ */
 @Repository
-public class MemberJpaRepository {
+public class MemberJpaRepository implements MemberSearchRepository {
+    // memberId 는 ShardIdGenerator 로 모든 shard 에서 유일하다
+    private static final Comparator<MemberTeamDto> SHARD_MERGE_ORDER = Comparator.comparing(MemberTeamDto::getMemberId);
+
     private final EntityManager em;
     private final JPAQueryFactory queryFactory;
+    private final MemberDataVersion dataVersion;
+    private final ObjectProvider<MemberShards> shards;
+    private final TransactionTemplate transaction;
+    private final TransactionTemplate readOnlyTransaction;
 
-    public MemberJpaRepository(EntityManager em) {
+    public MemberJpaRepository(EntityManager em, JPAQueryFactory queryFactory, MemberDataVersion dataVersion,
+                               ObjectProvider<MemberShards> shards, PlatformTransactionManager transactionManager) {
         this.em = em;
-        queryFactory = new JPAQueryFactory(em);
+        this.queryFactory = queryFactory;
+        this.dataVersion = dataVersion;
+        this.shards = shards;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
     }
 
+    /**
+     * 샤딩이 켜져 있으면 회원 팀이 있는 shard 에 저장한다. 팀은 같은 shard 에 이미 저장되어 있어야 한다.
+     */
     public void save(Member member){
-        em.persist(member);
+        MemberShards memberShards = shards.getIfAvailable();
+        if (memberShards != null) {
+            memberShards.writeShard(memberShards.shardOf(member), shardEm -> {
+                shardEm.persist(member);
+                return null;
+            });
+            return;
+        }
+        transaction.executeWithoutResult(status -> {
+            em.persist(member);
+            dataVersion.bump();
+        });
     }
 
+    /**
+     * 샤딩이 켜져 있으면 id 로 shard 를 찾아 팀까지 함께 읽어온다. (shard EntityManager 는 바로 닫힌다)
+     */
     public Optional<Member> findById(Long id){
-        Member findMember = em.find(Member.class, id);
-        return Optional.ofNullable(findMember);
+        MemberShards memberShards = shards.getIfAvailable();
+        if (memberShards != null) {
+            return memberShards.queryById(id, shardQueryFactory -> shardQueryFactory
+                            .selectFrom(member)
+                            .leftJoin(member.team, team).fetchJoin()
+                            .where(member.id.eq(id))
+                            .fetch())
+                    .stream().findFirst();
+        }
+        return readOnlyTransaction.execute(status -> Optional.ofNullable(em.find(Member.class, id)));
     }
 
     public List<Member> findAll(){
-        return  em.createQuery("select m from Member m", Member.class)
-                .getResultList();
+        MemberShards memberShards = shards.getIfAvailable();
+        if (memberShards != null) {
+            return findOnAllShards(memberShards, null);
+        }
+        return readOnlyTransaction.execute(status -> em.createQuery("select m from Member m", Member.class)
+                .getResultList());
     }
     public List<Member> findAll_queryDsl(){
-        return queryFactory
+        MemberShards memberShards = shards.getIfAvailable();
+        if (memberShards != null) {
+            return findOnAllShards(memberShards, null);
+        }
+        return readOnlyTransaction.execute(status -> queryFactory
                 .selectFrom(member)
-                .fetch();
+                .fetch());
     }
     public List<Member> findByUsername(String username){
-        return  em.createQuery("select m from Member m where m.username = :username", Member.class)
+        MemberShards memberShards = shards.getIfAvailable();
+        if (memberShards != null) {
+            return findOnAllShards(memberShards, member.username.eq(username));
+        }
+        return readOnlyTransaction.execute(status -> em
+                .createQuery("select m from Member m where m.username = :username", Member.class)
                 .setParameter("username", username)
-                .getResultList();
+                .getResultList());
     }
 
     public List<Member> findByUsername_queryDsl(String username){
-        return queryFactory
+        MemberShards memberShards = shards.getIfAvailable();
+        if (memberShards != null) {
+            return findOnAllShards(memberShards, member.username.eq(username));
+        }
+        return readOnlyTransaction.execute(status -> queryFactory
                 .selectFrom(member)
                 .where(member.username.eq(username))
-                .fetch();
+                .fetch());
+    }
+
+    /**
+     * 팀 이름으로 정해지지 않는 조회라 모든 shard 에서 읽고 id 순으로 합친다.
+     * shard EntityManager 는 바로 닫히므로 팀을 함께 읽어온다.
+     */
+    private List<Member> findOnAllShards(MemberShards memberShards, Predicate where) {
+        List<Member> result = memberShards.query(null, shardQueryFactory -> shardQueryFactory
+                .selectFrom(member)
+                .leftJoin(member.team, team).fetchJoin()
+                .where(where)
+                .fetch());
+        result.sort(Comparator.comparing(Member::getId));
+        return result;
+    }
+    /**
+     * 팀 회원을 team.members 컬렉션을 초기화하지 않고 페이지 단위로 조회한다.
+     * 샤딩이 켜져 있으면 팀 id 가 가리키는 shard 에서 조회한다. (팀과 회원은 같은 shard 에 있다)
+     */
+    public Page<Member> findByTeam(Long teamId, Pageable pageable){
+        MemberShards memberShards = shards.getIfAvailable();
+        if (memberShards != null) {
+            List<Member> content = memberShards.queryById(teamId,
+                    shardQueryFactory -> teamPageQuery(shardQueryFactory, teamId, pageable).fetch());
+            return PageableExecutionUtils.getPage(content, pageable, () -> memberShards.queryById(teamId,
+                    shardQueryFactory -> teamCountQuery(shardQueryFactory, teamId).fetch()).get(0));
+        }
+        return readOnlyTransaction.execute(status -> {
+            List<Member> content = teamPageQuery(queryFactory, teamId, pageable).fetch();
+            return PageableExecutionUtils.getPage(content, pageable, () -> teamCountQuery(queryFactory, teamId).fetchOne());
+        });
+    }
+
+    private JPAQuery<Member> teamPageQuery(JPAQueryFactory queryFactory, Long teamId, Pageable pageable) {
+        return queryFactory
+                .selectFrom(member)
+                .where(member.team.id.eq(teamId))
+                .orderBy(member.id.asc())
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize());
+    }
+
+    private JPAQuery<Long> teamCountQuery(JPAQueryFactory queryFactory, Long teamId) {
+        return queryFactory
+                .select(member.count())
+                .from(member)
+                .where(member.team.id.eq(teamId));
     }
+
     public List<MemberTeamDto> searchByBuilder(MemberSearchCondition condition){
         BooleanBuilder builder = new BooleanBuilder();
         if(hasText(condition.getUsername())){
@@ -76,6 +200,74 @@ public class MemberJpaRepository {
         if(condition.getAgeLoe() != null){
             builder.and(member.age.loe(condition.getAgeLoe()));
         }
+        MemberShards memberShards = shards.getIfAvailable();
+        if (memberShards != null) {
+            List<MemberTeamDto> result = memberShards.query(condition.getTeamName(),
+                    shardQueryFactory -> batchQuery(shardQueryFactory, builder).fetch());
+            result.sort(SHARD_MERGE_ORDER);
+            return result;
+        }
+        return readOnlyTransaction.execute(status -> batchQuery(queryFactory, builder).fetch());
+    }
+
+    /**
+     * 샤딩(app.sharding.enabled)이 켜져 있으면 대상 shard 들에서 실행하고 결과를 memberId 순으로 합친다.
+     */
+    @Override
+    public List<MemberTeamDto> search(MemberSearchCondition condition){
+        MemberShards memberShards = shards.getIfAvailable();
+        if (memberShards != null) {
+            List<MemberTeamDto> result = memberShards.query(condition.getTeamName(),
+                    shardQueryFactory -> searchQuery(shardQueryFactory, condition).fetch());
+            result.sort(SHARD_MERGE_ORDER);
+            return result;
+        }
+        return readOnlyTransaction.execute(status -> searchQuery(queryFactory, condition)
+                .fetch());
+    }
+
+    /**
+     * search() 결과를 member.id 순으로 최대 limit 건만 조회한다.
+     */
+    @Override
+    public List<MemberTeamDto> search(MemberSearchCondition condition, long limit){
+        MemberShards memberShards = shards.getIfAvailable();
+        if (memberShards != null) {
+            List<MemberTeamDto> result = memberShards.query(condition.getTeamName(),
+                    shardQueryFactory -> searchQuery(shardQueryFactory, condition)
+                            .orderBy(member.id.asc())
+                            .limit(limit)
+                            .fetch());
+            result.sort(SHARD_MERGE_ORDER);
+            return result.size() > limit ? new ArrayList<>(result.subList(0, (int) limit)) : result;
+        }
+        return readOnlyTransaction.execute(status -> searchQuery(queryFactory, condition)
+                .orderBy(member.id.asc())
+                .limit(limit)
+                .fetch());
+    }
+
+    /**
+     * search() 와 같은 조건으로 조회하되 DTO 를 만들지 않고 결과를 스트리밍하면서 바로 컬럼에 쌓는다.
+     * 샤딩이 켜져 있으면 shard 결과를 합쳐야 하므로 search() 결과를 컬럼으로 옮긴다.
+     */
+    public MemberTeamColumns searchColumnar(MemberSearchCondition condition){
+        if (shards.getIfAvailable() != null) {
+            return toColumns(search(condition));
+        }
+        return readOnlyTransaction.execute(status -> toColumns(searchColumnarQuery(condition)));
+    }
+
+    public MemberTeamColumns searchColumnar(MemberSearchCondition condition, long limit){
+        if (shards.getIfAvailable() != null) {
+            return toColumns(search(condition, limit));
+        }
+        return readOnlyTransaction.execute(status -> toColumns(searchColumnarQuery(condition)
+                .orderBy(member.id.asc())
+                .limit(limit)));
+    }
+
+    private JPAQuery<MemberTeamDto> searchQuery(JPAQueryFactory queryFactory, MemberSearchCondition condition) {
         return queryFactory
                 .select(new QMemberTeamDto(
                         member.id.as("memberId"),
@@ -86,11 +278,105 @@ public class MemberJpaRepository {
                 ))
                 .from(member)
                 .leftJoin(member.team, team)
-                .where(builder)
-                .fetch();
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                );
     }
 
-    public List<MemberTeamDto> search(MemberSearchCondition condition){
+    private JPAQuery<Tuple> searchColumnarQuery(MemberSearchCondition condition) {
+        return queryFactory
+                .select(member.id, member.username, member.age, team.id, team.name)
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                );
+    }
+
+    private MemberTeamColumns toColumns(JPAQuery<Tuple> query) {
+        MemberTeamColumns columns = new MemberTeamColumns();
+        try (Stream<Tuple> rows = query.stream()) {
+            rows.forEach(row -> columns.add(
+                    row.get(member.id),
+                    row.get(member.username),
+                    row.get(member.age),
+                    row.get(team.id),
+                    row.get(team.name)));
+        }
+        return columns;
+    }
+
+    private MemberTeamColumns toColumns(List<MemberTeamDto> rows) {
+        MemberTeamColumns columns = new MemberTeamColumns();
+        for (MemberTeamDto row : rows) {
+            columns.add(row.getMemberId(), row.getUsername(), row.getAge(), row.getTeamId(), row.getTeamName());
+        }
+        return columns;
+    }
+
+    /**
+     * 여러 검색 조건을 하나의 쿼리(커넥션 1개)로 처리한다.
+     * 동일한 조건은 한 번만 계산하고, 조건들을 OR로 묶은 단일 쿼리 결과를 조건별로 다시 나눈다.
+     * 결과는 요청 목록의 인덱스를 키로 돌려준다.
+     * 샤딩이 켜져 있으면 OR 쿼리를 모든 shard 에 보내고 memberId 순으로 합친 뒤 나눈다.
+     */
+    public Map<Integer, List<MemberTeamDto>> searchBatch(List<MemberSearchCondition> conditions) {
+        Assert.noNullElements(conditions, "search conditions must not contain null");
+        if (conditions.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<MemberSearchCondition> distinct = new ArrayList<>(new LinkedHashSet<>(conditions));
+
+        BooleanBuilder anyCondition = new BooleanBuilder();
+        for (MemberSearchCondition condition : distinct) {
+            BooleanBuilder each = new BooleanBuilder()
+                    .and(usernameEq(condition.getUsername()))
+                    .and(teamNameEq(condition.getTeamName()))
+                    .and(ageGoe(condition.getAgeGoe()))
+                    .and(ageLoe(condition.getAgeLoe()));
+            if (!each.hasValue()) {
+                // 조건이 없는 검색이 하나라도 있으면 전체 조회가 필요하다
+                anyCondition = new BooleanBuilder();
+                break;
+            }
+            anyCondition.or(each);
+        }
+
+        Predicate where = anyCondition;
+        List<MemberTeamDto> rows;
+        MemberShards memberShards = shards.getIfAvailable();
+        if (memberShards != null) {
+            rows = memberShards.query(null, shardQueryFactory -> batchQuery(shardQueryFactory, where).fetch());
+            rows.sort(SHARD_MERGE_ORDER);
+        } else {
+            rows = readOnlyTransaction.execute(status -> batchQuery(queryFactory, where).fetch());
+        }
+
+        Map<MemberSearchCondition, List<MemberTeamDto>> byCondition = new LinkedHashMap<>();
+        for (MemberSearchCondition condition : distinct) {
+            List<MemberTeamDto> matched = new ArrayList<>();
+            for (MemberTeamDto row : rows) {
+                if (matches(condition, row)) {
+                    matched.add(row);
+                }
+            }
+            byCondition.put(condition, matched);
+        }
+
+        Map<Integer, List<MemberTeamDto>> result = new LinkedHashMap<>();
+        for (int i = 0; i < conditions.size(); i++) {
+            result.put(i, byCondition.get(conditions.get(i)));
+        }
+        return result;
+    }
+
+    private JPAQuery<MemberTeamDto> batchQuery(JPAQueryFactory queryFactory, Predicate where) {
         return queryFactory
                 .select(new QMemberTeamDto(
                         member.id.as("memberId"),
@@ -101,13 +387,14 @@ public class MemberJpaRepository {
                 ))
                 .from(member)
                 .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
-                .fetch();
+                .where(where);
+    }
+
+    private boolean matches(MemberSearchCondition condition, MemberTeamDto row) {
+        return (isEmpty(condition.getUsername()) || condition.getUsername().equals(row.getUsername()))
+                && (isEmpty(condition.getTeamName()) || condition.getTeamName().equals(row.getTeamName()))
+                && (condition.getAgeGoe() == null || row.getAge() >= condition.getAgeGoe())
+                && (condition.getAgeLoe() == null || row.getAge() <= condition.getAgeLoe());
     }
 
     private BooleanExpression usernameEq(String username) {
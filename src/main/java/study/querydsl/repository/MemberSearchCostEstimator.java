@@ -0,0 +1,165 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+
+import javax.persistence.EntityManager;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.springframework.util.StringUtils.*;
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 검색 조건이 돌려줄 row 수를 실행 전에 추정한다.
+ * 회원 수, 팀 수, 나이 범위를 캐시해두고(stats-ttl) 조건마다 선택도를 곱한다. username 은 거의 유일하다고 본다.
+ * 추정이 검색보다 비싸지 않도록 테이블을 훑지 않는다. row 수는 DB 카탈로그의 추정치(H2 ROW_COUNT_ESTIMATE),
+ * 나이 범위는 age 인덱스로 읽는 min/max 다.
+ * 캐시된 통계를 쓰는 대부분의 호출은 트랜잭션(커넥션) 없이 끝나고, 통계를 다시 읽을 때만 readOnly 트랜잭션을 연다.
+ * 샤딩이 켜져 있으면 shard 마다 읽은 통계를 합친다.
+ */
+@Component
+public class MemberSearchCostEstimator {
+    private static final String ROW_COUNT_ESTIMATE = "select row_count_estimate from information_schema.tables"
+            + " where table_schema = schema() and table_name = ?1";
+
+    private final EntityManager em;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectProvider<MemberShards> shards;
+    private final long statsTtlMillis;
+
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private volatile TableStats stats;
+
+    public MemberSearchCostEstimator(EntityManager em, PlatformTransactionManager transactionManager,
+                                     ObjectProvider<MemberShards> shards,
+                                     @Value("${app.search.admission.stats-ttl:60s}") Duration statsTtl) {
+        this.em = em;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.shards = shards;
+        this.statsTtlMillis = statsTtl.toMillis();
+    }
+
+    public long estimate(MemberSearchCondition condition) {
+        TableStats stats = stats();
+        if (stats.members == 0) {
+            return 0;
+        }
+
+        double rows = stats.members;
+        if (!isEmpty(condition.getUsername())) {
+            rows /= stats.members;
+        }
+        if (!isEmpty(condition.getTeamName())) {
+            rows /= Math.max(stats.teams, 1);
+        }
+        if (condition.getAgeGoe() != null || condition.getAgeLoe() != null) {
+            int from = condition.getAgeGoe() == null ? stats.minAge : Math.max(condition.getAgeGoe(), stats.minAge);
+            int to = condition.getAgeLoe() == null ? stats.maxAge : Math.min(condition.getAgeLoe(), stats.maxAge);
+            if (to < from) {
+                return 0;
+            }
+            rows *= (double) (to - from + 1) / (stats.maxAge - stats.minAge + 1);
+        }
+        return (long) Math.ceil(rows);
+    }
+
+    /**
+     * 만료된 통계는 한 스레드만 다시 읽는다. 그동안 다른 스레드는 기다리지 않고 이전 통계를 쓰고,
+     * 아직 통계가 하나도 없을 때만 첫 로딩이 끝나기를 기다린다.
+     */
+    private TableStats stats() {
+        TableStats current = stats;
+        if (current != null && !expired(current)) {
+            return current;
+        }
+        if (current == null) {
+            refreshLock.lock();
+        } else if (!refreshLock.tryLock()) {
+            return current;
+        }
+        try {
+            current = stats;
+            if (current == null || expired(current)) {
+                current = loadStats();
+                stats = current;
+            }
+            return current;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private boolean expired(TableStats stats) {
+        return System.currentTimeMillis() - stats.loadedAt > statsTtlMillis;
+    }
+
+    private TableStats loadStats() {
+        MemberShards memberShards = shards.getIfAvailable();
+        if (memberShards == null) {
+            return readOnlyTransaction.execute(status -> loadStats(em));
+        }
+
+        List<TableStats> shardStats = memberShards.queryEach(this::loadStats);
+        long members = 0;
+        long teams = 0;
+        int minAge = Integer.MAX_VALUE;
+        int maxAge = Integer.MIN_VALUE;
+        for (TableStats each : shardStats) {
+            members += each.members;
+            teams += each.teams;
+            if (each.members > 0) {
+                minAge = Math.min(minAge, each.minAge);
+                maxAge = Math.max(maxAge, each.maxAge);
+            }
+        }
+        return members == 0
+                ? new TableStats(0, teams, 0, 0)
+                : new TableStats(members, teams, minAge, maxAge);
+    }
+
+    private TableStats loadStats(EntityManager em) {
+        Tuple ageRange = new JPAQueryFactory(em)
+                .select(member.age.min(), member.age.max())
+                .from(member)
+                .fetchOne();
+
+        Integer minAge = ageRange.get(member.age.min());
+        Integer maxAge = ageRange.get(member.age.max());
+        return new TableStats(
+                rowCountEstimate(em, "MEMBER"),
+                rowCountEstimate(em, "TEAM"),
+                minAge == null ? 0 : minAge,
+                maxAge == null ? 0 : maxAge);
+    }
+
+    private long rowCountEstimate(EntityManager em, String table) {
+        List<?> result = em.createNativeQuery(ROW_COUNT_ESTIMATE)
+                .setParameter(1, table)
+                .getResultList();
+        return result.isEmpty() ? 0 : ((Number) result.get(0)).longValue();
+    }
+
+    private static class TableStats {
+        final long loadedAt = System.currentTimeMillis();
+        final long members;
+        final long teams;
+        final int minAge;
+        final int maxAge;
+
+        TableStats(long members, long teams, int minAge, int maxAge) {
+            this.members = members;
+            this.teams = teams;
+            this.minAge = minAge;
+            this.maxAge = maxAge;
+        }
+    }
+}
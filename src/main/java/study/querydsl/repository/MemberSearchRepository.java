@@ -0,0 +1,18 @@
+package study.querydsl.repository;
+
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.util.List;
+
+/**
+ * /v1/members 검색 구현. app.search.engine 으로 JPA(기본) / SQL 구현을 고른다.
+ */
+public interface MemberSearchRepository {
+    List<MemberTeamDto> search(MemberSearchCondition condition);
+
+    /**
+     * memberId 순으로 최대 limit 건만 조회한다.
+     */
+    List<MemberTeamDto> search(MemberSearchCondition condition, long limit);
+}
@@ -0,0 +1,187 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.util.StringUtils;
+import study.querydsl.entity.Member;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+import javax.persistence.RollbackException;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 팀 이름으로 회원을 여러 DB 에 나눠 저장한다. 같은 팀의 팀/회원 row 는 항상 같은 shard 에 있다.
+ * 팀 이름이 정해진 조회는 해당 shard 하나로, 아니면 모든 shard 에 병렬로 보내고 결과를 합친다.
+ * 팀이 없는 회원은 NO_TEAM_SHARD 에 둔다.
+ * id 는 ShardIdGenerator 로 만들어서 모든 shard 에서 유일하고, id 만으로도 shard 를 찾을 수 있다.
+ * 쓰기는 shard 마다 독립된 로컬 트랜잭션이다. 여러 shard 에 걸친 쓰기(다른 shard 의 팀으로 이동 등)는 지원하지 않는다.
+ */
+@Slf4j
+public class MemberShards implements Closeable {
+    public static final int NO_TEAM_SHARD = 0;
+
+    private final List<EntityManagerFactory> entityManagerFactories;
+    private final List<? extends Closeable> dataSources;
+    private final MemberDataVersion dataVersion;
+    private final ExecutorService executor;
+
+    public MemberShards(List<EntityManagerFactory> entityManagerFactories, List<? extends Closeable> dataSources,
+                        MemberDataVersion dataVersion) {
+        this.entityManagerFactories = entityManagerFactories;
+        this.dataSources = dataSources;
+        this.dataVersion = dataVersion;
+        this.executor = Executors.newFixedThreadPool(entityManagerFactories.size());
+    }
+
+    public int size() {
+        return entityManagerFactories.size();
+    }
+
+    public int shardOf(String teamName) {
+        if (!StringUtils.hasText(teamName)) {
+            return NO_TEAM_SHARD;
+        }
+        return Math.floorMod(teamName.hashCode(), size());
+    }
+
+    public int shardOf(Member member) {
+        return shardOf(member.getTeam() == null ? null : member.getTeam().getName());
+    }
+
+    public int shardOfId(long id) {
+        return (int) Math.floorMod(id, (long) size());
+    }
+
+    /**
+     * 대상 shard 들에서 query 를 병렬로 실행하고 결과를 이어 붙인다. 정렬/limit 은 호출하는 쪽에서 한다.
+     */
+    public <T> List<T> query(String teamName, Function<JPAQueryFactory, List<T>> query) {
+        if (StringUtils.hasText(teamName)) {
+            return queryShard(shardOf(teamName), query);
+        }
+
+        List<CompletableFuture<List<T>>> futures = new ArrayList<>();
+        for (int shard = 0; shard < size(); shard++) {
+            int target = shard;
+            futures.add(CompletableFuture.supplyAsync(() -> queryShard(target, query), executor));
+        }
+        List<T> result = new ArrayList<>();
+        for (CompletableFuture<List<T>> future : futures) {
+            result.addAll(future.join());
+        }
+        return result;
+    }
+
+    /**
+     * 모든 shard 에서 query 를 병렬로 실행하고 shard 순서대로 결과를 하나씩 돌려준다.
+     */
+    public <T> List<T> queryEach(Function<EntityManager, T> query) {
+        List<CompletableFuture<T>> futures = new ArrayList<>();
+        for (EntityManagerFactory entityManagerFactory : entityManagerFactories) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                EntityManager em = entityManagerFactory.createEntityManager();
+                try {
+                    return query.apply(em);
+                } finally {
+                    em.close();
+                }
+            }, executor));
+        }
+        List<T> result = new ArrayList<>();
+        for (CompletableFuture<T> future : futures) {
+            result.add(future.join());
+        }
+        return result;
+    }
+
+    /**
+     * 회원/팀 id 가 있는 shard 하나에서 query 를 실행한다.
+     */
+    public <T> List<T> queryById(long id, Function<JPAQueryFactory, List<T>> query) {
+        return queryShard(shardOfId(id), query);
+    }
+
+    /**
+     * 팀 이름이 가리키는 shard 의 트랜잭션 안에서 쓰기 작업을 한다.
+     */
+    public void write(String teamName, Consumer<EntityManager> work) {
+        writeShard(shardOf(teamName), em -> {
+            work.accept(em);
+            return null;
+        });
+    }
+
+    /**
+     * 회원/팀 id 가 있는 shard 의 트랜잭션 안에서 쓰기 작업을 한다.
+     */
+    public <T> T writeById(long id, Function<EntityManager, T> work) {
+        return writeShard(shardOfId(id), work);
+    }
+
+    /**
+     * shard 하나의 로컬 트랜잭션 안에서 쓰기 작업을 한다. 커밋되면 검색 캐시용 데이터 버전을 바로 올린다
+     * (shard 커밋은 바깥 Spring 트랜잭션과 무관하므로 그 커밋을 기다리지 않는다).
+     * JPA 예외는 기본 DB 와 같은 DataAccessException(낙관적 락 충돌이면 OptimisticLockingFailureException)으로 바꿔 던진다.
+     */
+    public <T> T writeShard(int shard, Function<EntityManager, T> work) {
+        EntityManager em = entityManagerFactories.get(shard).createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        try {
+            tx.begin();
+            T result = work.apply(em);
+            em.flush();
+            tx.commit();
+            dataVersion.increment();
+            return result;
+        } catch (RuntimeException e) {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            throw translate(e);
+        } finally {
+            em.close();
+        }
+    }
+
+    private RuntimeException translate(RuntimeException e) {
+        RuntimeException cause = e instanceof RollbackException && e.getCause() instanceof RuntimeException
+                ? (RuntimeException) e.getCause() : e;
+        DataAccessException translated = EntityManagerFactoryUtils.convertJpaAccessExceptionIfPossible(cause);
+        return translated != null ? translated : e;
+    }
+
+    private <T> List<T> queryShard(int shard, Function<JPAQueryFactory, List<T>> query) {
+        EntityManager em = entityManagerFactories.get(shard).createEntityManager();
+        try {
+            return query.apply(new JPAQueryFactory(em));
+        } finally {
+            em.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        for (EntityManagerFactory entityManagerFactory : entityManagerFactories) {
+            entityManagerFactory.close();
+        }
+        for (Closeable dataSource : dataSources) {
+            try {
+                dataSource.close();
+            } catch (Exception e) {
+                log.warn("failed to close shard DataSource", e);
+            }
+        }
+    }
+}
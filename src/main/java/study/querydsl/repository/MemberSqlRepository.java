@@ -0,0 +1,84 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.sql.SQLQuery;
+import com.querydsl.sql.SQLQueryFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.sql.SMember;
+import study.querydsl.sql.STeam;
+
+import java.util.List;
+
+import static org.springframework.util.StringUtils.*;
+
+/**
+ * MemberJpaRepository.search 와 같은 결과를 querydsl-sql 로 바로 조회한다.
+ * JPQL 변환과 엔티티 메타데이터를 거치지 않는다. 대신 영속성 컨텍스트를 자동 flush 하지 않는다.
+ */
+@Repository
+@Primary
+@ConditionalOnProperty(name = "app.search.engine", havingValue = "sql")
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class MemberSqlRepository implements MemberSearchRepository {
+    private static final SMember member = SMember.member;
+    private static final STeam team = STeam.team;
+
+    private final SQLQueryFactory sqlQueryFactory;
+
+    @Override
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        return searchQuery(condition)
+                .fetch();
+    }
+
+    @Override
+    public List<MemberTeamDto> search(MemberSearchCondition condition, long limit) {
+        return searchQuery(condition)
+                .orderBy(member.memberId.asc())
+                .limit(limit)
+                .fetch();
+    }
+
+    private SQLQuery<MemberTeamDto> searchQuery(MemberSearchCondition condition) {
+        return sqlQueryFactory
+                .select(new QMemberTeamDto(
+                        member.memberId,
+                        member.username,
+                        member.age,
+                        team.teamId,
+                        team.name
+                ))
+                .from(member)
+                .leftJoin(team).on(member.teamId.eq(team.teamId))
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                );
+    }
+
+    private BooleanExpression usernameEq(String username) {
+        return isEmpty(username) ? null : member.username.eq(username);
+    }
+
+    private BooleanExpression teamNameEq(String teamName) {
+        return isEmpty(teamName) ? null : team.name.eq(teamName);
+    }
+
+    private BooleanExpression ageGoe(Integer ageGoe) {
+        return ageGoe != null ? member.age.goe(ageGoe) : null;
+    }
+
+    private BooleanExpression ageLoe(Integer ageLoe) {
+        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    }
+}
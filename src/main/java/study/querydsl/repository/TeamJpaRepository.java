@@ -0,0 +1,112 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.QMemberDto;
+import study.querydsl.dto.TeamWithMembersDto;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.querydsl.core.group.GroupBy.groupBy;
+import static com.querydsl.core.group.GroupBy.list;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 샤딩이 켜져 있으면 모든 shard 에서 읽어 합친다. 기본 DB 트랜잭션은 기본 DB 를 읽을 때만 연다. (MemberJpaRepository 와 같은 방식)
+ */
+@Repository
+public class TeamJpaRepository {
+    private final JPAQueryFactory queryFactory;
+    private final ObjectProvider<MemberShards> shards;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public TeamJpaRepository(JPAQueryFactory queryFactory, ObjectProvider<MemberShards> shards,
+                             PlatformTransactionManager transactionManager) {
+        this.queryFactory = queryFactory;
+        this.shards = shards;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * 팀 + 회원 목록을 팀 기준으로 페이징한다.
+     * 1) 해당 페이지의 팀 id 만 조회하고 2) 그 팀들의 (팀, 회원) 평탄한 row 를 한 번에 읽어 groupBy 로 묶는다.
+     * fetch join 처럼 부모 row 가 중복되어 페이징이 깨지지 않고, N+1 도 생기지 않는다.
+     */
+    public Page<TeamWithMembersDto> findTeamsWithMembers(Pageable pageable) {
+        MemberShards memberShards = shards.getIfAvailable();
+        if (memberShards != null) {
+            return findTeamsWithMembers(memberShards, pageable);
+        }
+        return readOnlyTransaction.execute(status -> {
+            List<Long> teamIds = queryFactory
+                    .select(team.id)
+                    .from(team)
+                    .orderBy(team.id.asc())
+                    .offset(pageable.getOffset())
+                    .limit(pageable.getPageSize())
+                    .fetch();
+
+            List<TeamWithMembersDto> content = teamIds.isEmpty()
+                    ? Collections.<TeamWithMembersDto>emptyList()
+                    : teamsWithMembers(queryFactory, teamIds);
+
+            return PageableExecutionUtils.getPage(content, pageable, () -> queryFactory
+                    .select(team.count())
+                    .from(team)
+                    .fetchOne());
+        });
+    }
+
+    /**
+     * shard 마다 앞에서부터 offset + size 개의 팀 id 를 읽고, 합쳐서 정렬한 뒤 페이지 구간만 남긴다.
+     * 그 팀들의 회원은 팀과 같은 shard 에 있으므로 각 shard 에서 자기 팀만 묶어 온다.
+     */
+    private Page<TeamWithMembersDto> findTeamsWithMembers(MemberShards memberShards, Pageable pageable) {
+        long window = pageable.getOffset() + pageable.getPageSize();
+        List<Long> candidates = memberShards.query(null, shardQueryFactory -> shardQueryFactory
+                .select(team.id)
+                .from(team)
+                .orderBy(team.id.asc())
+                .limit(window)
+                .fetch());
+        candidates.sort(Comparator.naturalOrder());
+        List<Long> teamIds = candidates.subList(
+                (int) Math.min(pageable.getOffset(), candidates.size()),
+                (int) Math.min(window, candidates.size()));
+
+        List<TeamWithMembersDto> content = teamIds.isEmpty()
+                ? Collections.emptyList()
+                : memberShards.query(null, shardQueryFactory -> teamsWithMembers(shardQueryFactory, teamIds));
+        content.sort(Comparator.comparing(TeamWithMembersDto::getTeamId));
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> memberShards.query(null,
+                        shardQueryFactory -> shardQueryFactory.select(team.count()).from(team).fetch())
+                .stream()
+                .mapToLong(Long::longValue)
+                .sum());
+    }
+
+    private List<TeamWithMembersDto> teamsWithMembers(JPAQueryFactory queryFactory, List<Long> teamIds) {
+        return queryFactory
+                .from(team)
+                .leftJoin(team.members, member)
+                .where(team.id.in(teamIds))
+                .orderBy(team.id.asc(), member.id.asc())
+                .transform(groupBy(team.id).list(Projections.constructor(TeamWithMembersDto.class,
+                        team.id,
+                        team.name,
+                        list(new QMemberDto(member.username, member.age).skipNulls())
+                )));
+    }
+}
@@ -0,0 +1,115 @@
+package study.querydsl.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.MemberSearchCostEstimator;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 추정 row 수로 검색을 cheap / expensive 로 나누고 각각 따로 동시 실행 수를 제한한다.
+ * <ul>
+ *     <li>cheap-max-rows 이하: cheap 슬롯에서 그대로 실행</li>
+ *     <li>reject-over-rows 초과: 바로 거절</li>
+ *     <li>그 사이: expensive 슬롯을 queue-timeout 까지 기다린 뒤 row-cap 건으로 잘라 실행</li>
+ * </ul>
+ * 배치 검색은 중복을 뺀 조건들의 추정치를 더해서 판단하고, 잘라낼 수 없으므로 row-cap 을 넘으면 거절한다.
+ * 슬롯을 얻지 못해도 거절하며, 결과는 member.search.admission 메트릭(class, outcome 태그)으로 남긴다.
+ */
+@Component
+public class MemberSearchAdmission {
+    private final MemberSearchCostEstimator costEstimator;
+    private final MeterRegistry meterRegistry;
+
+    private final long cheapMaxRows;
+    private final long rejectOverRows;
+    private final long rowCap;
+    private final long queueTimeoutMillis;
+    private final Semaphore cheapSlots;
+    private final Semaphore expensiveSlots;
+
+    public MemberSearchAdmission(MemberSearchCostEstimator costEstimator, MeterRegistry meterRegistry,
+                                 @Value("${app.search.admission.cheap-max-rows:1000}") long cheapMaxRows,
+                                 @Value("${app.search.admission.reject-over-rows:1000000}") long rejectOverRows,
+                                 @Value("${app.search.admission.row-cap:10000}") long rowCap,
+                                 @Value("${app.search.admission.cheap-concurrency:32}") int cheapConcurrency,
+                                 @Value("${app.search.admission.expensive-concurrency:2}") int expensiveConcurrency,
+                                 @Value("${app.search.admission.queue-timeout:2s}") Duration queueTimeout) {
+        this.costEstimator = costEstimator;
+        this.meterRegistry = meterRegistry;
+        this.cheapMaxRows = cheapMaxRows;
+        this.rejectOverRows = rejectOverRows;
+        this.rowCap = rowCap;
+        this.queueTimeoutMillis = queueTimeout.toMillis();
+        this.cheapSlots = new Semaphore(cheapConcurrency);
+        this.expensiveSlots = new Semaphore(expensiveConcurrency);
+    }
+
+    /**
+     * @param search   제한 없는 검색
+     * @param capped   row-cap 으로 자른 검색
+     */
+    public <T> T execute(MemberSearchCondition condition, Supplier<T> search, Function<Long, T> capped) {
+        long estimatedRows = costEstimator.estimate(condition);
+
+        if (estimatedRows <= cheapMaxRows) {
+            return run("cheap", cheapSlots, search);
+        }
+        if (estimatedRows > rejectOverRows) {
+            record("expensive", "rejected");
+            throw new SearchRejectedException("search too expensive: ~" + estimatedRows + " rows");
+        }
+        return run("expensive", expensiveSlots, () -> capped.apply(rowCap));
+    }
+
+    /**
+     * @param search 모든 조건을 한 번에 실행하는 배치 검색
+     */
+    public <T> T executeBatch(List<MemberSearchCondition> conditions, Supplier<T> search) {
+        long estimatedRows = 0;
+        for (MemberSearchCondition condition : new LinkedHashSet<>(conditions)) {
+            estimatedRows += costEstimator.estimate(condition);
+        }
+
+        if (estimatedRows <= cheapMaxRows) {
+            return run("cheap", cheapSlots, search);
+        }
+        if (estimatedRows > rowCap) {
+            record("expensive", "rejected");
+            throw new SearchRejectedException("batch search too expensive: ~" + estimatedRows + " rows");
+        }
+        return run("expensive", expensiveSlots, search);
+    }
+
+    private <T> T run(String searchClass, Semaphore slots, Supplier<T> search) {
+        boolean acquired;
+        try {
+            acquired = slots.tryAcquire(queueTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            record(searchClass, "rejected");
+            throw new SearchRejectedException("too many concurrent " + searchClass + " searches");
+        }
+        try {
+            record(searchClass, "admitted");
+            return search.get();
+        } finally {
+            slots.release();
+        }
+    }
+
+    private void record(String searchClass, String outcome) {
+        meterRegistry.counter("member.search.admission", "class", searchClass, "outcome", outcome).increment();
+    }
+}
@@ -0,0 +1,127 @@
+package study.querydsl.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberDataVersion;
+import study.querydsl.repository.MemberShards;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * 회원 수정. Member/Team 의 @Version 으로 충돌을 감지하고, 충돌하면 새 트랜잭션에서 최신 값을 다시 읽어 재시도한다.
+ * 재시도 간격은 min(max-backoff, base-backoff * 2^(n-1)) 안에서 무작위(full jitter)로 정해서
+ * 충돌한 쓰기들이 같은 시각에 다시 몰리지 않게 한다. max-attempts 를 넘기면 예외를 그대로 던진다.
+ * 샤딩이 켜져 있으면 회원 id 가 가리키는 shard 의 트랜잭션에서 수정한다. 다른 shard 의 팀으로 옮기는 것은 지원하지 않는다.
+ */
+@Slf4j
+@Service
+public class MemberUpdateService {
+    @PersistenceContext
+    private EntityManager em;
+    private final TransactionTemplate transactionTemplate;
+    private final MemberDataVersion memberDataVersion;
+    private final ObjectProvider<MemberShards> shards;
+    private final Counter retries;
+    private final Counter exhausted;
+
+    private final int maxAttempts;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+
+    public MemberUpdateService(PlatformTransactionManager transactionManager,
+                               MemberDataVersion memberDataVersion,
+                               ObjectProvider<MemberShards> shards,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.member.update.max-attempts:5}") int maxAttempts,
+                               @Value("${app.member.update.base-backoff:5ms}") Duration baseBackoff,
+                               @Value("${app.member.update.max-backoff:200ms}") Duration maxBackoff) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // 재시도마다 새 영속성 컨텍스트에서 최신 version 을 읽어야 한다
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.memberDataVersion = memberDataVersion;
+        this.shards = shards;
+        this.retries = meterRegistry.counter("member.update.retry");
+        this.exhausted = meterRegistry.counter("member.update.exhausted");
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMillis = baseBackoff.toMillis();
+        this.maxBackoffMillis = maxBackoff.toMillis();
+    }
+
+    public void changeAge(Long memberId, int age) {
+        update(memberId, member -> member.setAge(age));
+    }
+
+    public void changeTeam(Long memberId, Long teamId) {
+        MemberShards memberShards = shards.getIfAvailable();
+        if (memberShards != null && memberShards.shardOfId(memberId) != memberShards.shardOfId(teamId)) {
+            throw new IllegalArgumentException("cannot move member " + memberId + " to team " + teamId + " on another shard");
+        }
+        update(memberId, (entityManager, member) -> member.changeTeam(entityManager.getReference(Team.class, teamId)));
+    }
+
+    public void update(Long memberId, Consumer<Member> change) {
+        update(memberId, (entityManager, member) -> change.accept(member));
+    }
+
+    private void update(Long memberId, BiConsumer<EntityManager, Member> change) {
+        MemberShards memberShards = shards.getIfAvailable();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                if (memberShards != null) {
+                    // 커밋 후 데이터 버전은 MemberShards 가 올린다
+                    memberShards.writeById(memberId, shardEm -> {
+                        change.accept(shardEm, find(shardEm, memberId));
+                        return null;
+                    });
+                } else {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        change.accept(em, find(em, memberId));
+                        memberDataVersion.bump();
+                    });
+                }
+                return;
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    exhausted.increment();
+                    throw e;
+                }
+                retries.increment();
+                log.debug("optimistic lock conflict on member {} (attempt {})", memberId, attempt);
+                backoff(attempt);
+            }
+        }
+    }
+
+    private Member find(EntityManager entityManager, Long memberId) {
+        Member member = entityManager.find(Member.class, memberId);
+        if (member == null) {
+            throw new IllegalArgumentException("member not found: " + memberId);
+        }
+        return member;
+    }
+
+    private void backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffMillis, baseBackoffMillis << Math.min(attempt - 1, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while retrying member update", e);
+        }
+    }
+}
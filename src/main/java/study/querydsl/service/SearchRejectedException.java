@@ -0,0 +1,11 @@
+package study.querydsl.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class SearchRejectedException extends RuntimeException {
+    public SearchRejectedException(String message) {
+        super(message);
+    }
+}
@@ -9,6 +9,7 @@ import com.querydsl.jpa.impl.JPAQueryFactory;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.dto.MemberDto;
@@ -33,6 +34,8 @@ import static study.querydsl.entity.QTeam.team;
 public class QueryDslBasicTest {
     @PersistenceContext
     EntityManager em;
+    @Autowired
+    JPAQueryFactory queryFactory;
 
     @BeforeEach
     public void before() throws Exception {
@@ -78,7 +81,6 @@ public class QueryDslBasicTest {
     @Test
     public void startQueryDsl() throws Exception {
         //given
-        JPAQueryFactory queryFactory = new JPAQueryFactory(em);
 
         //when
         Member findMember = queryFactory
@@ -97,7 +99,6 @@ public class QueryDslBasicTest {
     @Test
     public void searchAndParam() throws Exception {
         //given
-        JPAQueryFactory queryFactory = new JPAQueryFactory(em);
 
         //when
         Member findMember = queryFactory
@@ -121,7 +122,6 @@ public class QueryDslBasicTest {
     @Test
     public void sort() throws Exception {
         //given
-        JPAQueryFactory queryFactory = new JPAQueryFactory(em);
         em.persist(new Member(null, 100));
         em.persist(new Member("member5", 100));
         em.persist(new Member("member6", 100));
@@ -146,7 +146,6 @@ public class QueryDslBasicTest {
     @Test
     public void paging1() throws Exception {
         //given
-        JPAQueryFactory queryFactory = new JPAQueryFactory(em);
 
         //when
         List<Member> result = queryFactory.
@@ -163,7 +162,6 @@ public class QueryDslBasicTest {
     @Test
     public void aggregation() throws Exception {
         //given
-        JPAQueryFactory queryFactory = new JPAQueryFactory(em);
 
         //when
         List<Tuple> result = queryFactory.
@@ -194,7 +192,6 @@ public class QueryDslBasicTest {
     @Test
     public void group() throws Exception {
         //given
-        JPAQueryFactory queryFactory = new JPAQueryFactory(em);
 
         //when
         List<Tuple> result = queryFactory
@@ -223,7 +220,6 @@ public class QueryDslBasicTest {
     @Test
     public void join() throws Exception {
         //given
-        JPAQueryFactory queryFactory = new JPAQueryFactory(em);
 
         //when
         List<Member> result = queryFactory
@@ -242,7 +238,6 @@ public class QueryDslBasicTest {
     @Test
     public void join_on_filtering() throws Exception {
         //given
-        JPAQueryFactory queryFactory = new JPAQueryFactory(em);
 
         //when
         List<Tuple> result = queryFactory
@@ -269,7 +264,6 @@ public class QueryDslBasicTest {
     @Test
     public void fetchJoinNo() throws Exception {
         //given
-        JPAQueryFactory queryFactory = new JPAQueryFactory(em);
         em.flush();
         em.clear();
 
@@ -288,7 +282,6 @@ public class QueryDslBasicTest {
     @Test
     public void fetchJoinUse() throws Exception {
         //given
-        JPAQueryFactory queryFactory = new JPAQueryFactory(em);
         em.flush();
         em.clear();
 
@@ -314,7 +307,6 @@ public class QueryDslBasicTest {
     public void subQuery() throws Exception {
         //given
         QMember m2 = new QMember("member2");
-        JPAQueryFactory queryFactory = new JPAQueryFactory(em);
 
         //when
         List<Member> result = queryFactory
@@ -338,7 +330,6 @@ public class QueryDslBasicTest {
     public void subQuery2() throws Exception {
         //given
         QMember m2 = new QMember("member2");
-        JPAQueryFactory queryFactory = new JPAQueryFactory(em);
 
         //when
         List<Member> result = queryFactory
@@ -356,7 +347,6 @@ public class QueryDslBasicTest {
     @Test
     public void basicCase() throws Exception {
         //given
-        JPAQueryFactory queryFactory = new JPAQueryFactory(em);
 
         //when
         List<String> result = queryFactory
@@ -376,7 +366,6 @@ public class QueryDslBasicTest {
     @Test
     public void findDtoBySetter() throws Exception {
         //given
-        JPAQueryFactory queryFactory = new JPAQueryFactory(em);
 
         //when
         List<MemberDto> result = queryFactory
@@ -394,7 +383,6 @@ public class QueryDslBasicTest {
     @Test
     public void findDtoByField() throws Exception {
         //given
-        JPAQueryFactory queryFactory = new JPAQueryFactory(em);
 
         //when
         List<MemberDto> result = queryFactory
@@ -411,7 +399,6 @@ public class QueryDslBasicTest {
     @Test
     public void findDtoByConstructor() throws Exception {
         //given
-        JPAQueryFactory queryFactory = new JPAQueryFactory(em);
 
         //when
         List<MemberDto> result = queryFactory
@@ -429,7 +416,6 @@ public class QueryDslBasicTest {
     @Test
     public void findDtoByQeuryProjection() throws Exception {
         //given
-        JPAQueryFactory queryFactory = new JPAQueryFactory(em);
 
         //when
         List<MemberDto> result = queryFactory
@@ -444,7 +430,6 @@ public class QueryDslBasicTest {
     @Test
     public void dynamicQuery_WhereParam() throws Exception {
         //given
-        JPAQueryFactory queryFactory = new JPAQueryFactory(em);
         String usernameParam = "member1";
         Integer ageParam = null;
 
@@ -456,7 +441,6 @@ public class QueryDslBasicTest {
     }
 
     private List<Member> searchMember2(String usernameCond, Integer ageCond) {
-        JPAQueryFactory queryFactory = new JPAQueryFactory(em);
         return queryFactory
                 .selectFrom(member)
 //                .where(usernameEq(usernameCond), ageEq(ageCond))
@@ -0,0 +1,78 @@
+package study.querydsl.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberJpaRepository;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "app.datasource.routing.enabled=true",
+        // 쓰기 직후에도 replica 로 읽는지 보려고 replica-lag 동안 primary 로 보내는 보호를 끈다
+        "app.datasource.routing.replica-lag=0s",
+        "app.datasource.primary.jdbc-url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+        "app.datasource.primary.username=sa",
+        "app.datasource.primary.pool-name=primary",
+        "app.datasource.replica.jdbc-url=jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1",
+        "app.datasource.replica.username=sa",
+        "app.datasource.replica.pool-name=replica",
+        "spring.jpa.hibernate.ddl-auto=create"
+})
+class DataSourceRoutingConfigTest {
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+    @Autowired
+    @Qualifier("primaryDataSource")
+    DataSource primaryDataSource;
+    @Autowired
+    @Qualifier("replicaDataSource")
+    DataSource replicaDataSource;
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    /**
+     * 복제 대신 primary 의 스키마/데이터를 그대로 replica 에 옮겨 둔다.
+     */
+    @BeforeEach
+    public void replicate() {
+        JdbcTemplate primary = new JdbcTemplate(primaryDataSource);
+        JdbcTemplate replica = new JdbcTemplate(replicaDataSource);
+        List<String> script = primary.queryForList("SCRIPT", String.class);
+        replica.execute("DROP ALL OBJECTS");
+        script.forEach(replica::execute);
+    }
+
+    @Test
+    public void saveToPrimaryAndSearchFromReplica() throws Exception {
+        //given
+        double replicaRoutes = meterRegistry.counter("datasource.routing", "target", ReadWriteRoutingDataSource.REPLICA).count();
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("routedMember");
+
+        //when
+        memberJpaRepository.save(new Member("routedMember", 10));
+        List<MemberTeamDto> result = memberJpaRepository.search(condition);
+
+        //then
+        Integer onPrimary = new JdbcTemplate(primaryDataSource)
+                .queryForObject("select count(*) from member where username = 'routedMember'", Integer.class);
+        assertThat(onPrimary).isEqualTo(1);
+        assertThat(result).isEmpty();
+        assertThat(meterRegistry.counter("datasource.routing", "target", ReadWriteRoutingDataSource.REPLICA).count())
+                .isGreaterThan(replicaRoutes);
+
+        replicate();
+        assertThat(memberJpaRepository.search(condition)).extracting("username").containsExactly("routedMember");
+    }
+}
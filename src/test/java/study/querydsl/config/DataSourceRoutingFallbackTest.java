@@ -0,0 +1,45 @@
+package study.querydsl.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberJpaRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "app.datasource.routing.enabled=true",
+        "app.datasource.primary.jdbc-url=jdbc:h2:mem:fallback-primary;DB_CLOSE_DELAY=-1",
+        "app.datasource.primary.username=sa",
+        "app.datasource.replica.jdbc-url=jdbc:h2:mem:fallback-replica;IFEXISTS=TRUE",
+        "app.datasource.replica.username=sa",
+        "app.datasource.replica.connection-timeout=250",
+        "spring.jpa.hibernate.ddl-auto=create"
+})
+class DataSourceRoutingFallbackTest {
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Test
+    public void searchFallsBackToPrimaryWhenReplicaIsDown() throws Exception {
+        //given
+        memberJpaRepository.save(new Member("fallbackMember", 10));
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("fallbackMember");
+
+        //when
+        List<MemberTeamDto> result = memberJpaRepository.search(condition);
+
+        //then
+        assertThat(result).extracting("username").containsExactly("fallbackMember");
+        assertThat(meterRegistry.counter("datasource.routing.fallback").count()).isGreaterThan(0);
+    }
+}
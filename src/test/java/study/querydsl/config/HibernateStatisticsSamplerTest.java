@@ -0,0 +1,72 @@
+package study.querydsl.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.MemberJpaRepository;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "app.hibernate-stats.window-ms=3600000",
+        "app.hibernate-stats.sample-every=1"
+})
+class HibernateStatisticsSamplerTest {
+    @Autowired
+    HibernateStatisticsSampler sampler;
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Test
+    public void sampleQueryStatistics() throws Exception {
+        //given
+        sampler.tick();
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        //when
+        memberJpaRepository.search(condition);
+        memberJpaRepository.search(condition);
+        sampler.tick();
+
+        //then
+        HibernateStatisticsSnapshot snapshot = sampler.getLatest();
+        assertThat(snapshot.getQueryExecutionCount()).isEqualTo(2);
+        assertThat(snapshot.getQueries()).hasSize(1);
+        assertThat(snapshot.getQueries().get(0).getQuery()).contains("from Member member1");
+        assertThat(snapshot.getQueries().get(0).getExecutionCount()).isEqualTo(2);
+        assertThat(meterRegistry.get("querydsl.hibernate.sampled.query.executions").gauge().value()).isEqualTo(2);
+        assertThat(meterRegistry.get("querydsl.hibernate.sampled.query.executions.by.query")
+                .tag("query", snapshot.getQueries().get(0).getQuery())
+                .gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    public void queryMetersFollowLatestWindow() throws Exception {
+        //given
+        sampler.tick();
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        memberJpaRepository.search(condition);
+        sampler.tick();
+        String oldQuery = sampler.getLatest().getQueries().get(0).getQuery();
+
+        //when
+        memberJpaRepository.findByUsername_queryDsl("member1");
+        sampler.tick();
+
+        //then
+        String newQuery = sampler.getLatest().getQueries().get(0).getQuery();
+        assertThat(newQuery).isNotEqualTo(oldQuery);
+        assertThat(meterRegistry.find("querydsl.hibernate.sampled.query.executions.by.query")
+                .tag("query", oldQuery)
+                .gauge()).isNull();
+        assertThat(meterRegistry.get("querydsl.hibernate.sampled.query.executions.by.query")
+                .tag("query", newQuery)
+                .gauge().value()).isEqualTo(1);
+    }
+}
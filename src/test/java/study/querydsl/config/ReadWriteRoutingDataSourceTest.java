@@ -0,0 +1,67 @@
+package study.querydsl.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ReadWriteRoutingDataSourceTest {
+    DataSource primary = new DriverManagerDataSource("jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1", "sa", "");
+    DataSource replica = new DriverManagerDataSource("jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1", "sa", "");
+
+    @AfterEach
+    public void clear() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    public void routeByReadOnly() throws Exception {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, replica, Duration.ofSeconds(30));
+
+        assertThat(urlOf(routing)).contains("primary");
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertThat(urlOf(routing)).contains("replica");
+    }
+
+    @Test
+    public void readFromPrimaryWithinReplicaLagAfterWrite() throws Exception {
+        AtomicLong lastWriteAt = new AtomicLong();
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, replica, Duration.ofSeconds(30),
+                Duration.ofSeconds(1), lastWriteAt::get, new SimpleMeterRegistry());
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertThat(urlOf(routing)).contains("replica");
+
+        lastWriteAt.set(System.currentTimeMillis());
+        assertThat(urlOf(routing)).contains("primary");
+
+        lastWriteAt.set(System.currentTimeMillis() - 1_000);
+        assertThat(urlOf(routing)).contains("replica");
+    }
+
+    @Test
+    public void fallbackToPrimaryWhenReplicaIsDown() throws Exception {
+        DataSource brokenReplica = new DriverManagerDataSource("jdbc:h2:mem:replica;IFEXISTS=TRUE;UNKNOWN_SETTING=1", "sa", "");
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, brokenReplica, Duration.ofSeconds(30));
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(urlOf(routing)).contains("primary");
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo(ReadWriteRoutingDataSource.PRIMARY);
+    }
+
+    private String urlOf(DataSource dataSource) throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            return connection.getMetaData().getURL();
+        }
+    }
+}
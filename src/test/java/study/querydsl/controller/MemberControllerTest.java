@@ -0,0 +1,101 @@
+package study.querydsl.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberJpaRepository;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "app.search.admission.stats-ttl=0s",
+        "app.search.admission.cheap-max-rows=2",
+        "app.search.admission.row-cap=3"
+})
+@AutoConfigureMockMvc
+class MemberControllerTest {
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+    @Autowired
+    EntityManager em;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    public void after() {
+        transactionTemplate.executeWithoutResult(status -> em.createQuery("delete from Member").executeUpdate());
+    }
+
+    @Test
+    public void notModifiedUntilWrite() throws Exception {
+        //given
+        String etag = mockMvc.perform(get("/v1/members").param("teamName", "teamA"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotNull();
+
+        //when, then
+        mockMvc.perform(get("/v1/members").param("teamName", "teamA").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        memberJpaRepository.save(new Member("member1", 10));
+
+        mockMvc.perform(get("/v1/members").param("teamName", "teamA").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+    }
+
+    @Test
+    public void cappedSearchIsMarkedTruncated() throws Exception {
+        //given
+        for (int i = 0; i < 5; i++) {
+            memberJpaRepository.save(new Member("member" + i, i));
+        }
+        Thread.sleep(5);
+
+        //when, then
+        mockMvc.perform(get("/v1/members"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(header().string(MemberController.RESULT_TRUNCATED, "true"))
+                .andExpect(header().string(MemberController.RESULT_LIMIT, "3"));
+
+        mockMvc.perform(get("/v1/members").param("username", "member1"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(MemberController.RESULT_TRUNCATED));
+    }
+
+    @Test
+    public void batchGoesThroughAdmission() throws Exception {
+        //given
+        for (int i = 0; i < 5; i++) {
+            memberJpaRepository.save(new Member("member" + i, i));
+        }
+        Thread.sleep(5);
+
+        //when, then
+        mockMvc.perform(post("/v1/members/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"username\":\"member1\"},{\"username\":\"member2\"}]"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/v1/members/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("[{},{\"ageGoe\":0}]"))
+                .andExpect(status().isTooManyRequests());
+    }
+}
@@ -1,6 +1,7 @@
 package study.querydsl.entity;
 
 import org.assertj.core.api.Assertions;
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
@@ -49,4 +50,29 @@ class MemberTest {
         Assertions.assertThat(members.get(2).getUsername()).isEqualTo("member3");
         Assertions.assertThat(members.get(3).getUsername()).isEqualTo("member4");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void teamMembersExtraLazy() throws Exception {
+        //given
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        for (int i = 0; i < 10; i++) {
+            em.persist(new Member("member" + i, i, teamA));
+        }
+        em.flush();
+        em.clear();
+
+        //when
+        Team findTeam = em.find(Team.class, teamA.getId());
+        int size = findTeam.getMembers().size();
+
+        Member newMember = new Member("member10", 10);
+        newMember.changeTeam(findTeam);
+        em.persist(newMember);
+
+        //then
+        Assertions.assertThat(size).isEqualTo(10);
+        Assertions.assertThat(findTeam.getMembers().contains(newMember)).isTrue();
+        Assertions.assertThat(Hibernate.isInitialized(findTeam.getMembers())).isFalse();
+    }
+}
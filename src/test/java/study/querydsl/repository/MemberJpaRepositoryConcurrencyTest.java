@@ -0,0 +1,104 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 공유 JPAQueryFactory 빈으로 여러 스레드가 동시에 search() 를 호출해도 결과가 섞이지 않는지 확인한다.
+ * 다른 스레드에서 데이터가 보여야 하므로 트랜잭션을 커밋하고, 끝나면 지운다.
+ */
+@SpringBootTest
+class MemberJpaRepositoryConcurrencyTest {
+    static final int TEAMS = 10;
+    static final int MEMBERS_PER_TEAM = 50;
+    static final int CALLS = 5000;
+    static final int THREADS = 16;
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+    @Autowired
+    ApplicationContext applicationContext;
+
+    @BeforeEach
+    public void before() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int t = 0; t < TEAMS; t++) {
+                Team team = new Team("team" + t);
+                em.persist(team);
+                for (int i = 0; i < MEMBERS_PER_TEAM; i++) {
+                    em.persist(new Member("member" + t + "_" + i, i, team));
+                }
+            }
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+
+    @Test
+    public void concurrentSearch() throws Exception {
+        //given
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        //when
+        for (int i = 0; i < CALLS; i++) {
+            String teamName = "team" + (i % TEAMS);
+            int ageGoe = i % MEMBERS_PER_TEAM;
+            futures.add(executor.submit(() -> {
+                MemberSearchCondition condition = new MemberSearchCondition();
+                condition.setTeamName(teamName);
+                condition.setAgeGoe(ageGoe);
+
+                List<MemberTeamDto> result = memberJpaRepository.search(condition);
+
+                //then
+                assertThat(result).hasSize(MEMBERS_PER_TEAM - ageGoe);
+                assertThat(result).allSatisfy(dto -> {
+                    assertThat(dto.getTeamName()).isEqualTo(teamName);
+                    assertThat(dto.getAge()).isGreaterThanOrEqualTo(ageGoe);
+                });
+            }));
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+
+    @Test
+    public void singleQueryFactoryBean() {
+        assertThat(applicationContext.getBeansOfType(JPAQueryFactory.class)).hasSize(1);
+    }
+}
@@ -4,27 +4,35 @@ import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamColumns;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.Team;
 
 import javax.persistence.EntityManager;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.*;
 
-@SpringBootTest
+@SpringBootTest(properties = "app.search.admission.stats-ttl=0s")
 @Transactional
 class MemberJpaRepositoryTest {
     @Autowired
     EntityManager em;
     @Autowired
     MemberJpaRepository memberJpaRepository;
+    @Autowired
+    MemberSearchCostEstimator memberSearchCostEstimator;
     @Test
     public void basicTest() throws Exception {
         //given
@@ -88,4 +96,112 @@ class MemberJpaRepositoryTest {
         //then
         assertThat(result).extracting("username").containsExactly("member4");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void searchBatchTest() throws Exception {
+        //given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+
+        MemberSearchCondition teamBCondition = new MemberSearchCondition();
+        teamBCondition.setTeamName("teamB");
+
+        MemberSearchCondition ageCondition = new MemberSearchCondition();
+        ageCondition.setAgeLoe(20);
+
+        MemberSearchCondition sameAsTeamB = new MemberSearchCondition();
+        sameAsTeamB.setTeamName("teamB");
+
+        //when
+        Map<Integer, List<MemberTeamDto>> result =
+                memberJpaRepository.searchBatch(Arrays.asList(teamBCondition, ageCondition, sameAsTeamB));
+
+        //then
+        assertThat(result).hasSize(3);
+        assertThat(result.get(0)).extracting("username").containsExactlyInAnyOrder("member3", "member4");
+        assertThat(result.get(1)).extracting("username").containsExactlyInAnyOrder("member1", "member2");
+        assertThat(result.get(2)).isSameAs(result.get(0));
+    }
+
+    @Test
+    public void searchBatchEmptyAndNull() throws Exception {
+        assertThat(memberJpaRepository.searchBatch(Collections.emptyList())).isEmpty();
+        assertThatThrownBy(() -> memberJpaRepository.searchBatch(Arrays.asList(new MemberSearchCondition(), null)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void findByTeamPaging() throws Exception {
+        //given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        for (int i = 0; i < 5; i++) {
+            em.persist(new Member("a" + i, i, teamA));
+            em.persist(new Member("b" + i, i, teamB));
+        }
+
+        //when
+        Page<Member> page = memberJpaRepository.findByTeam(teamA.getId(), PageRequest.of(1, 2));
+
+        //then
+        assertThat(page.getContent()).extracting("username").containsExactly("a2", "a3");
+        assertThat(page.getTotalElements()).isEqualTo(5);
+        assertThat(page.getTotalPages()).isEqualTo(3);
+    }
+
+    @Test
+    public void searchColumnarTest() throws Exception {
+        //given
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        //when
+        MemberTeamColumns columns = memberJpaRepository.searchColumnar(condition);
+
+        //then
+        assertThat(columns.getSize()).isEqualTo(3);
+        assertThat(columns.getTeamNames()).containsExactly("teamA");
+        assertThat(columns.getTeamIds()).containsExactly(teamA.getId());
+        assertThat(columns.getTeamIndexes()).containsExactly(0, 0, -1);
+        assertThat(columns.getMemberIds()).hasSize(3);
+    }
+
+    @Test
+    public void estimateSearchCost() throws Exception {
+        //given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        for (int i = 0; i < 100; i++) {
+            em.persist(new Member("member" + i, i, i % 2 == 0 ? teamA : teamB));
+        }
+        em.flush();
+
+        MemberSearchCondition all = new MemberSearchCondition();
+        MemberSearchCondition byTeam = new MemberSearchCondition();
+        byTeam.setTeamName("teamA");
+        MemberSearchCondition byTeamAndAge = new MemberSearchCondition();
+        byTeamAndAge.setTeamName("teamA");
+        byTeamAndAge.setAgeGoe(90);
+
+        //when, then
+        assertThat(memberSearchCostEstimator.estimate(all)).isEqualTo(100);
+        assertThat(memberSearchCostEstimator.estimate(byTeam)).isEqualTo(50);
+        assertThat(memberSearchCostEstimator.estimate(byTeamAndAge)).isEqualTo(5);
+    }
+}
@@ -0,0 +1,162 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.service.MemberUpdateService;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static study.querydsl.entity.QMember.member;
+
+@SpringBootTest(properties = {
+        "app.sharding.enabled=true",
+        "app.sharding.urls[0]=jdbc:h2:mem:shard0",
+        "app.sharding.urls[1]=jdbc:h2:mem:shard1",
+        "app.sharding.urls[2]=jdbc:h2:mem:shard2",
+        "app.sharding.ddl-auto=create-drop"
+})
+class MemberShardsTest {
+    @Autowired
+    MemberShards memberShards;
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+    @Autowired
+    MemberDataVersion memberDataVersion;
+    @Autowired
+    TeamJpaRepository teamJpaRepository;
+    @Autowired
+    MemberUpdateService memberUpdateService;
+
+    @Test
+    public void scatterGather() throws Exception {
+        //given
+        for (int t = 0; t < 6; t++) {
+            String teamName = "team" + t;
+            memberShards.write(teamName, em -> {
+                Team team = new Team(teamName);
+                em.persist(team);
+                for (int i = 0; i < 5; i++) {
+                    em.persist(new Member(teamName + "_member" + i, i * 10, team));
+                }
+            });
+        }
+
+        //when
+        MemberSearchCondition pinned = new MemberSearchCondition();
+        pinned.setTeamName("team3");
+        pinned.setAgeGoe(20);
+
+        MemberSearchCondition all = new MemberSearchCondition();
+        all.setAgeLoe(10);
+
+        List<MemberTeamDto> pinnedResult = memberJpaRepository.search(pinned);
+        List<MemberTeamDto> allResult = memberJpaRepository.search(all);
+        List<MemberTeamDto> limitedResult = memberJpaRepository.search(all, 4);
+
+        //then
+        assertThat(pinnedResult).extracting("username")
+                .containsExactly("team3_member2", "team3_member3", "team3_member4");
+        assertThat(allResult).hasSize(12);
+        assertThat(allResult).extracting("memberId").isSorted();
+        assertThat(limitedResult).containsExactlyElementsOf(allResult.subList(0, 4));
+
+        int team3Shard = memberShards.shardOf("team3");
+        List<String> team3ShardUsernames = memberShards.query("team3",
+                queryFactory -> queryFactory.select(member.username).from(member).fetch());
+        assertThat(team3ShardUsernames).contains("team3_member0");
+        assertThat(team3ShardUsernames).allSatisfy(username ->
+                assertThat(memberShards.shardOf(username.substring(0, username.indexOf('_')))).isEqualTo(team3Shard));
+    }
+
+    @Test
+    public void idsAreUniqueAcrossShards() throws Exception {
+        //given
+        String etagBefore = memberDataVersion.etag("json");
+        for (int t = 0; t < 6; t++) {
+            String teamName = "idTeam" + t;
+            memberShards.write(teamName, em -> {
+                Team team = new Team(teamName);
+                em.persist(team);
+                for (int i = 0; i < 3; i++) {
+                    em.persist(new Member(teamName + "_member" + i, 100 + i, team));
+                }
+            });
+        }
+        assertThat(memberDataVersion.etag("json")).isNotEqualTo(etagBefore);
+
+        //when
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(100);
+        condition.setAgeLoe(102);
+        List<MemberTeamDto> result = memberJpaRepository.search(condition);
+
+        //then
+        assertThat(result).hasSize(18);
+        assertThat(result).extracting("memberId").doesNotHaveDuplicates();
+        assertThat(result).extracting("teamId").doesNotContainNull();
+        assertThat(result).allSatisfy(row -> {
+            int shard = memberShards.shardOf(row.getTeamName());
+            assertThat(memberShards.shardOfId(row.getMemberId())).isEqualTo(shard);
+            assertThat(memberShards.shardOfId(row.getTeamId())).isEqualTo(shard);
+        });
+
+        MemberTeamDto first = result.get(0);
+        assertThat(memberJpaRepository.findById(first.getMemberId()))
+                .hasValueSatisfying(found -> assertThat(found.getTeam().getName()).isEqualTo(first.getTeamName()));
+        assertThat(memberJpaRepository.findByTeam(first.getTeamId(), PageRequest.of(0, 2)).getTotalElements())
+                .isEqualTo(3);
+        assertThat(memberJpaRepository.searchColumnar(condition).getSize()).isEqualTo(18);
+        assertThat(memberJpaRepository.searchBatch(Collections.singletonList(condition)).get(0)).isEqualTo(result);
+    }
+
+    @Test
+    public void writesGoToShards() throws Exception {
+        //given
+        Team saveTeam = memberShards.writeShard(memberShards.shardOf("saveTeam"), em -> {
+            Team team = new Team("saveTeam");
+            em.persist(team);
+            return team;
+        });
+
+        //when
+        Member saved = new Member("savedMember", 200, saveTeam);
+        memberJpaRepository.save(saved);
+        Member noTeam = new Member("noTeamMember", 201);
+        memberJpaRepository.save(noTeam);
+        memberUpdateService.changeAge(saved.getId(), 202);
+
+        //then
+        MemberSearchCondition byTeam = new MemberSearchCondition();
+        byTeam.setTeamName("saveTeam");
+        assertThat(memberJpaRepository.search(byTeam))
+                .extracting("username", "age")
+                .containsExactly(tuple("savedMember", 202));
+
+        MemberSearchCondition all = new MemberSearchCondition();
+        all.setAgeGoe(200);
+        assertThat(memberJpaRepository.search(all)).extracting("username")
+                .containsExactlyInAnyOrder("savedMember", "noTeamMember");
+        assertThat(memberJpaRepository.searchByBuilder(all)).extracting("username")
+                .containsExactlyInAnyOrder("savedMember", "noTeamMember");
+
+        assertThat(memberShards.shardOfId(noTeam.getId())).isEqualTo(MemberShards.NO_TEAM_SHARD);
+        assertThat(memberJpaRepository.findById(noTeam.getId())).isPresent();
+        assertThat(memberJpaRepository.findByUsername("savedMember")).extracting("age").containsExactly(202);
+        assertThat(memberJpaRepository.findByUsername_queryDsl("noTeamMember")).hasSize(1);
+        assertThat(memberJpaRepository.findAll()).extracting("username").contains("savedMember", "noTeamMember");
+        assertThat(memberJpaRepository.findAll_queryDsl()).extracting("username").contains("savedMember", "noTeamMember");
+        assertThat(teamJpaRepository.findTeamsWithMembers(PageRequest.of(0, 100)).getContent())
+                .filteredOn(t -> "saveTeam".equals(t.getTeamName()))
+                .flatExtracting("members")
+                .extracting("username")
+                .containsExactly("savedMember");
+    }
+}
@@ -0,0 +1,54 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(properties = "app.search.engine=sql")
+@Transactional
+class MemberSqlRepositoryTest {
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberSearchRepository memberSearchRepository;
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @Test
+    public void sameResultAsJpa() throws Exception {
+        //given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+        em.persist(new Member("member5", 50));
+        em.flush();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+
+        //when
+        List<MemberTeamDto> sqlResult = memberSearchRepository.search(condition);
+        List<MemberTeamDto> jpaResult = memberJpaRepository.search(condition);
+
+        //then
+        assertThat(memberSearchRepository).isInstanceOf(MemberSqlRepository.class);
+        assertThat(sqlResult).extracting("username").containsExactlyInAnyOrder("member2", "member3", "member4", "member5");
+        assertThat(sqlResult).containsExactlyInAnyOrderElementsOf(jpaResult);
+    }
+}
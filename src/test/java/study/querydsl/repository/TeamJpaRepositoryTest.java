@@ -0,0 +1,54 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.TeamWithMembersDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class TeamJpaRepositoryTest {
+    @Autowired
+    EntityManager em;
+    @Autowired
+    TeamJpaRepository teamJpaRepository;
+
+    @Test
+    public void findTeamsWithMembers() throws Exception {
+        //given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        Team teamC = new Team("teamC");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(teamC);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.flush();
+        em.clear();
+
+        //when
+        Page<TeamWithMembersDto> firstPage = teamJpaRepository.findTeamsWithMembers(PageRequest.of(0, 2));
+        Page<TeamWithMembersDto> secondPage = teamJpaRepository.findTeamsWithMembers(PageRequest.of(1, 2));
+
+        //then
+        assertThat(firstPage.getTotalElements()).isEqualTo(3);
+        assertThat(firstPage.getContent()).extracting("teamName").containsExactly("teamA", "teamB");
+        assertThat(firstPage.getContent().get(0).getMembers()).extracting("username").containsExactly("member1", "member2");
+        assertThat(firstPage.getContent().get(1).getMembers()).extracting("username").containsExactly("member3");
+
+        assertThat(secondPage.getContent()).extracting("teamName").containsExactly("teamC");
+        assertThat(secondPage.getContent().get(0).getMembers()).isEmpty();
+    }
+}
@@ -0,0 +1,86 @@
+package study.querydsl.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.MemberSearchCostEstimator;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MemberSearchAdmissionTest {
+    MemberSearchCostEstimator costEstimator = mock(MemberSearchCostEstimator.class);
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    MemberSearchAdmission admission = new MemberSearchAdmission(costEstimator, meterRegistry,
+            100, 10_000, 500, 4, 1, Duration.ofMillis(10));
+
+    @Test
+    public void cheapSearchRunsUncapped() {
+        when(costEstimator.estimate(any())).thenReturn(10L);
+
+        String result = admission.execute(new MemberSearchCondition(), () -> "all", limit -> "capped:" + limit);
+
+        assertThat(result).isEqualTo("all");
+        assertThat(count("cheap", "admitted")).isEqualTo(1);
+    }
+
+    @Test
+    public void expensiveSearchIsCapped() {
+        when(costEstimator.estimate(any())).thenReturn(5_000L);
+
+        String result = admission.execute(new MemberSearchCondition(), () -> "all", limit -> "capped:" + limit);
+
+        assertThat(result).isEqualTo("capped:500");
+        assertThat(count("expensive", "admitted")).isEqualTo(1);
+    }
+
+    @Test
+    public void tooExpensiveSearchIsRejected() {
+        when(costEstimator.estimate(any())).thenReturn(50_000L);
+
+        assertThatThrownBy(() -> admission.execute(new MemberSearchCondition(), () -> "all", limit -> "capped"))
+                .isInstanceOf(SearchRejectedException.class);
+        assertThat(count("expensive", "rejected")).isEqualTo(1);
+    }
+
+    @Test
+    public void rejectWhenExpensiveSlotsAreBusy() {
+        when(costEstimator.estimate(any())).thenReturn(5_000L);
+
+        assertThatThrownBy(() -> admission.execute(new MemberSearchCondition(), () -> "all",
+                limit -> admission.execute(new MemberSearchCondition(), () -> "all", inner -> "capped")))
+                .isInstanceOf(SearchRejectedException.class);
+        assertThat(count("expensive", "rejected")).isEqualTo(1);
+    }
+
+    @Test
+    public void batchIsAdmittedOnDistinctConditions() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        when(costEstimator.estimate(any())).thenReturn(300L);
+
+        String result = admission.executeBatch(Arrays.asList(condition, condition, condition), () -> "batch");
+
+        assertThat(result).isEqualTo("batch");
+        assertThat(count("expensive", "admitted")).isEqualTo(1);
+    }
+
+    @Test
+    public void batchOverRowCapIsRejected() {
+        MemberSearchCondition other = new MemberSearchCondition();
+        other.setUsername("member1");
+        when(costEstimator.estimate(any())).thenReturn(300L);
+
+        assertThatThrownBy(() -> admission.executeBatch(Arrays.asList(new MemberSearchCondition(), other), () -> "batch"))
+                .isInstanceOf(SearchRejectedException.class);
+        assertThat(count("expensive", "rejected")).isEqualTo(1);
+    }
+
+    private double count(String searchClass, String outcome) {
+        return meterRegistry.counter("member.search.admission", "class", searchClass, "outcome", outcome).count();
+    }
+}
@@ -0,0 +1,91 @@
+package study.querydsl.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(properties = "app.member.update.max-attempts=1000")
+class MemberUpdateServiceTest {
+    @Autowired
+    MemberUpdateService memberUpdateService;
+    @Autowired
+    EntityManager em;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    public void after() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+
+    @Test
+    public void concurrentUpdatesAreNotLost() throws Exception {
+        //given
+        Member member = transactionTemplate.execute(status -> {
+            Member newMember = new Member("member1", 0);
+            em.persist(newMember);
+            return newMember;
+        });
+        int threads = 8;
+        int updatesPerThread = 10;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        //when
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < updatesPerThread; i++) {
+                    memberUpdateService.update(member.getId(), m -> m.setAge(m.getAge() + 1));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        //then
+        Member result = em.find(Member.class, member.getId());
+        assertThat(result.getAge()).isEqualTo(threads * updatesPerThread);
+        assertThat(result.getVersion()).isEqualTo((long) threads * updatesPerThread);
+    }
+
+    @Test
+    public void changeTeamDoesNotBumpTeamVersion() throws Exception {
+        //given
+        Long[] ids = transactionTemplate.execute(status -> {
+            Team teamA = new Team("teamA");
+            Team teamB = new Team("teamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            Member member = new Member("member1", 10, teamA);
+            em.persist(member);
+            return new Long[]{member.getId(), teamB.getId()};
+        });
+
+        //when
+        memberUpdateService.changeTeam(ids[0], ids[1]);
+
+        //then
+        Member member = transactionTemplate.execute(status -> em.find(Member.class, ids[0]));
+        Team teamB = transactionTemplate.execute(status -> em.find(Team.class, ids[1]));
+        assertThat(member.getVersion()).isEqualTo(1L);
+        assertThat(teamB.getVersion()).isEqualTo(0L);
+    }
+}